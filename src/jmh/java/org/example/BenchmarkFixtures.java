@@ -0,0 +1,43 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Benchmark'ların paylaştığı DexScreener cevap örnekleri (src/jmh/resources/fixtures)
+final class BenchmarkFixtures {
+
+    static final byte[] BOOSTS = read("/fixtures/token-boosts-latest.json");
+    static final byte[] PAIRS = read("/fixtures/latest-dex-tokens.json");
+
+    private BenchmarkFixtures() {
+    }
+
+    // Boosts örneğindeki her adres için decodePairs'in beklediği normalize adres -> adres eşlemesi
+    static Map<String, String> requestedAddresses() {
+        try {
+            List<Main.BoostEntry> boosts = DexScreenerDecoder.decodeBoosts(new java.io.ByteArrayInputStream(BOOSTS));
+            Map<String, String> requested = new HashMap<>();
+            for (Main.BoostEntry boost : boosts) {
+                requested.put(DexScreenerDecoder.normalizeAddress(boost.tokenAddress), boost.tokenAddress);
+            }
+            return requested;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] read(String resource) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Fixture bulunamadı: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// ColumnarMetricsStore'un üretimde kullanılan iki yolu, geçici bir dizin üzerinde: write-behind'ın toplu
+// yazımı ve başlangıçta istatistik motorunun doldurulması (tüm günlerin toplamı ve son kayıtlar).
+// Karşılaştırma için aynı yazım DatabaseBenchmark.insertTokenMetricsBatch ile ölçülür.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarStoreBenchmark {
+
+    private static final int TOKEN_COUNT = 1000;
+    private static final int BATCH_SIZE = 100;
+    // Yaklaşık 3 günlük, 10 saniyede 30 tokenlık tarama
+    private static final int SEED_ROWS = 1_000_000;
+    private static final long START = 1_700_000_000_000L;
+    // Main'deki stats.windowSize / stats.windowHours varsayılanları
+    private static final int STATS_WINDOW_SIZE = 5000;
+    private static final long STATS_WINDOW_PERIOD = 6L * 60L * 60L * 1000L;
+
+    private Path storeDir;
+    private ColumnarMetricsStore store;
+    private List<Main.DatabaseManager.TokenMetric> batch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        storeDir = Files.createTempDirectory("dex-columnar-bench");
+        store = new ColumnarMetricsStore(storeDir);
+        List<Main.DatabaseManager.TokenMetric> seed = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            seed.add(new Main.DatabaseManager.TokenMetric(address(i % TOKEN_COUNT), 40000 + i, 12000.5, 350000.25,
+                    START + i * 300L, 120, 3.5));
+            if (seed.size() == BATCH_SIZE) {
+                store.insertTokenMetricsBatch(seed);
+                seed.clear();
+            }
+        }
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Main.DatabaseManager.TokenMetric(address(i), 40000 + i, 12000.5, 350000.25,
+                    START + SEED_ROWS * 300L, 120, 3.5));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(storeDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertTokenMetricsBatch() {
+        store.insertTokenMetricsBatch(batch);
+    }
+
+    @Benchmark
+    public TokenStatistics.Snapshot loadStatistics() {
+        TokenStatistics statistics = new TokenStatistics(STATS_WINDOW_SIZE, STATS_WINDOW_PERIOD);
+        store.loadStatistics(statistics);
+        return statistics.snapshot(START + SEED_ROWS * 300L);
+    }
+
+    private static String address(int i) {
+        return String.format("So1ana%038d", i);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// DatabaseManager yazım ve okuma yolları, geçici bir SQLite dosyası üzerinde
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    private static final int TOKEN_COUNT = 10000;
+    private static final int BATCH_SIZE = 100;
+
+    private Path dbDir;
+    private Main.DatabaseManager dbManager;
+    private List<Main.DatabaseManager.TokenMetric> batch;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dbDir = Files.createTempDirectory("dex-bench");
+        dbManager = new Main.DatabaseManager("jdbc:sqlite:" + dbDir.resolve("bench.db"));
+        dbManager.initializeDatabase();
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            dbManager.upsertTokenInfo(address(i), i, 1000L + i);
+        }
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Main.DatabaseManager.TokenMetric(address(i), 40000 + i, 12000.5, 350000.25, i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dbManager.close();
+        try (var files = Files.list(dbDir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dbDir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertTokenMetricsBatch() {
+        dbManager.insertTokenMetricsBatch(batch);
+    }
+
+    @Benchmark
+    public Main.DatabaseManager.TokenInfo getTokenInfo() {
+        next = (next + 1) % TOKEN_COUNT;
+        return dbManager.getTokenInfo(address(next));
+    }
+
+    @Benchmark
+    public void upsertTokenInfo() {
+        next = (next + 1) % TOKEN_COUNT;
+        dbManager.upsertTokenInfo(address(next), System.currentTimeMillis(), 5000L);
+    }
+
+    private static String address(int i) {
+        return String.format("So1ana%038d", i);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Boosts listesi ve çoklu adres detay cevabının akış halinde çözülmesi
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    private Map<String, String> requested;
+
+    @Setup
+    public void setup() {
+        requested = BenchmarkFixtures.requestedAddresses();
+    }
+
+    @Benchmark
+    public List<Main.BoostEntry> decodeBoosts() throws IOException {
+        return DexScreenerDecoder.decodeBoosts(new ByteArrayInputStream(BenchmarkFixtures.BOOSTS));
+    }
+
+    @Benchmark
+    public Map<String, Main.TokenData> decodePairsFirst() throws IOException {
+        return DexScreenerDecoder.decodePairs(new ByteArrayInputStream(BenchmarkFixtures.PAIRS), requested, false);
+    }
+
+    @Benchmark
+    public Map<String, Main.TokenData> decodePairsBestLiquidity() throws IOException {
+        return DexScreenerDecoder.decodePairs(new ByteArrayInputStream(BenchmarkFixtures.PAIRS), requested, true);
+    }
+}
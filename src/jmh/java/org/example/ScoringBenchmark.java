@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// GemScorer puanlaması (scoreToken'daki momentumlu yol) ve handleGemToken'daki mesaj biçimlendirme
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    // Çağrı başına puanlanan token sayısı; @OperationsPerInvocation derleme zamanı sabiti istediği için
+    // fikstür bu boya döngüsel olarak tamamlanır
+    private static final int TOKENS = 30;
+    // Token yaşı sabit bir ana göre hesaplanır ki sonuç çalıştırmalar arasında değişmesin
+    private static final long NOW = 1_700_000_000_000L;
+
+    private Main.TokenData[] tokens;
+    private MomentumTracker.Features[] momentum;
+    private TokenStatistics.Snapshot stats;
+
+    @Setup
+    public void setup() throws IOException {
+        Main.TokenData[] decoded = DexScreenerDecoder.decodePairs(new ByteArrayInputStream(BenchmarkFixtures.PAIRS),
+                BenchmarkFixtures.requestedAddresses(), false).values().toArray(new Main.TokenData[0]);
+        tokens = new Main.TokenData[TOKENS];
+        momentum = new MomentumTracker.Features[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = decoded[i % decoded.length];
+            momentum[i] = features(i);
+        }
+        TokenStatistics statistics = new TokenStatistics(5000, 0);
+        for (int i = 0; i < 5000; i++) {
+            Main.TokenData data = tokens[i % tokens.length];
+            statistics.add(data.marketCap, data.liquidityUsd, data.volume24h, NOW - 5000 + i);
+        }
+        stats = statistics.snapshot(NOW);
+    }
+
+    // Momentum eşiklerinin her iki yanına düşen özellikler; her dördüncü tokenın henüz yeterli örneği yok
+    private static MomentumTracker.Features features(int i) {
+        MomentumTracker.Features features = new MomentumTracker.Features();
+        features.samples = i % 4 == 0 ? 2 : 8;
+        features.marketCapVelocity = i % 2 == 0 ? 0.05 : 0.005;
+        features.marketCapAcceleration = i % 3 == 0 ? 0.01 : -0.01;
+        features.liquidityDrain = i % 5 == 0 ? 0.03 : -0.002;
+        features.buyRatioTrend = i % 3 == 1 ? 0.2 : 0.0;
+        return features;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void calculateGemScore(Blackhole bh) {
+        for (int i = 0; i < TOKENS; i++) {
+            bh.consume(Main.GemScorer.calculateGemScore(tokens[i], stats, momentum[i], Main.GemScorer.Weights.DEFAULT, NOW));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void formatGemMessage(Blackhole bh) {
+        for (Main.TokenData data : tokens) {
+            bh.consume(Main.formatGemMessage(data, 7));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// DexScreener ve Telegram'ın yerel taklidi. Yük testinde bot gerçek servislere gitmeden uçtan uca çalışır.
+// Token evreni başta üretilir; her liste isteğinde pencere churnPerRequest kadar kayar, her detay isteğinde
+// tokenların market cap/likidite/hacim değerleri rastgele yürür. Gecikme, 5xx ve 429 oranları ayarlanabilir.
+// Telegram sendMessage çağrıları kabul edilir ve yalnızca sayılır.
+class DexSimulator implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(DexSimulator.class.getName());
+
+    static class Config {
+        // Evrendeki token sayısı
+        int tokens = 5000;
+        // Bir liste cevabındaki kayıt sayısı
+        int entriesPerResponse = 30;
+        // Her liste isteğinde pencerenin kaydığı kayıt sayısı; 0 ise liste hiç değişmez
+        int churnPerRequest = 5;
+        long latencyMs = 50;
+        long latencyJitterMs = 50;
+        double errorRate = 0.0;
+        double rateLimitRate = 0.0;
+        long retryAfterSeconds = 1;
+    }
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Token evreni: indeks -> zincir, adres ve rastgele yürüyen değerler. Zincir, adres ve indexOf kurulumdan
+    // sonra değişmez; yürüyen değerler sunucu thread'leri arasında paylaşıldığı için lock altında okunur ve yazılır.
+    private final Object lock = new Object();
+    private final String[] chains;
+    private final String[] addresses;
+    private final Map<String, Integer> indexOf = new HashMap<>();
+    private final double[] marketCaps;
+    private final double[] liquidities;
+    private final double[] volumes;
+    private final int[] buys;
+    private final int[] sells;
+    private final long[] createdAt;
+
+    // Liste yolu -> pencere başı
+    private final Map<String, AtomicLong> cursors = new HashMap<>();
+
+    final LongAdder listRequests = new LongAdder();
+    final LongAdder detailRequests = new LongAdder();
+    final LongAdder detailAddresses = new LongAdder();
+    final LongAdder telegramMessages = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+
+    public DexSimulator(Config config) throws IOException {
+        this.config = config;
+        int n = config.tokens;
+        chains = new String[n];
+        addresses = new String[n];
+        marketCaps = new double[n];
+        liquidities = new double[n];
+        volumes = new double[n];
+        buys = new int[n];
+        sells = new int[n];
+        createdAt = new long[n];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            // Her dördüncü token EVM zincirinde; adres harf duyarsız 0x biçiminde
+            if (i % 4 == 0) {
+                chains[i] = "base";
+                addresses[i] = String.format(Locale.ROOT, "0x%040X", i);
+            } else {
+                chains[i] = "solana";
+                addresses[i] = String.format(Locale.ROOT, "Sim%08dpump", i);
+            }
+            indexOf.put(DexScreenerDecoder.normalizeAddress(addresses[i]), i);
+            marketCaps[i] = 20_000 + random.nextDouble(2_000_000);
+            liquidities[i] = marketCaps[i] * (0.05 + random.nextDouble(0.3));
+            volumes[i] = marketCaps[i] * random.nextDouble(3);
+            buys[i] = random.nextInt(5000);
+            sells[i] = random.nextInt(5000);
+            createdAt[i] = now - random.nextLong(14L * 24 * 60 * 60 * 1000);
+        }
+        cursors.put("/token-boosts/latest/v1", new AtomicLong());
+        cursors.put("/token-boosts/top/v1", new AtomicLong(n / 2));
+        cursors.put("/token-profiles/latest/v1", new AtomicLong(n / 3));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        for (String path : cursors.keySet()) {
+            server.createContext(path, this::handleList);
+        }
+        server.createContext("/latest/dex/tokens/", this::handleDetails);
+        server.createContext("/bot", this::handleTelegram);
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Simülatör dinliyor: " + baseUrl() + " (" + config.tokens + " token)");
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleList(HttpExchange exchange) throws IOException {
+        listRequests.increment();
+        if (injectFault(exchange)) {
+            return;
+        }
+        String path = exchange.getHttpContext().getPath();
+        boolean boosted = path.startsWith("/token-boosts");
+        long start = cursors.get(path).getAndAdd(config.churnPerRequest);
+        StringBuilder sb = new StringBuilder(config.entriesPerResponse * 160).append('[');
+        for (int k = 0; k < config.entriesPerResponse; k++) {
+            int i = (int) ((start + k) % config.tokens);
+            if (k > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"url\":\"https://dexscreener.com/").append(chains[i]).append('/').append(addresses[i])
+                    .append("\",\"chainId\":\"").append(chains[i])
+                    .append("\",\"tokenAddress\":\"").append(addresses[i]).append('"');
+            if (boosted) {
+                sb.append(",\"amount\":").append(10 + i % 90).append(",\"totalAmount\":").append(100 + i % 900);
+            }
+            sb.append('}');
+        }
+        respond(exchange, 200, sb.append(']').toString());
+    }
+
+    private void handleDetails(HttpExchange exchange) throws IOException {
+        detailRequests.increment();
+        if (injectFault(exchange)) {
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        String[] requested = path.substring("/latest/dex/tokens/".length()).split(",");
+        detailAddresses.add(requested.length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder sb = new StringBuilder(requested.length * 600).append("{\"schemaVersion\":\"1.0.0\",\"pairs\":[");
+        synchronized (lock) {
+            appendPairs(sb, requested, random);
+        }
+        respond(exchange, 200, sb.append("]}").toString());
+    }
+
+    private void appendPairs(StringBuilder sb, String[] requested, ThreadLocalRandom random) {
+        boolean first = true;
+        for (String address : requested) {
+            Integer index = indexOf.get(DexScreenerDecoder.normalizeAddress(address));
+            if (index == null) {
+                continue;
+            }
+            int i = index;
+            // Değerler her istekte biraz yürür ki detay önbelleği tokenları "değişti" görsün
+            marketCaps[i] = Math.max(1000, marketCaps[i] * (1 + random.nextGaussian() * 0.03));
+            liquidities[i] = Math.max(100, liquidities[i] * (1 + random.nextGaussian() * 0.01));
+            volumes[i] = volumes[i] * (1 + Math.abs(random.nextGaussian()) * 0.02);
+            buys[i] += random.nextInt(20);
+            sells[i] += random.nextInt(20);
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            double price = marketCaps[i] / 1_000_000_000.0;
+            sb.append("{\"chainId\":\"").append(chains[i])
+                    .append("\",\"dexId\":\"").append(i % 4 == 0 ? "uniswap" : "raydium")
+                    .append("\",\"url\":\"https://dexscreener.com/").append(chains[i]).append("/pair").append(i)
+                    .append("\",\"pairAddress\":\"pair").append(i)
+                    .append("\",\"baseToken\":{\"address\":\"").append(addresses[i])
+                    .append("\",\"name\":\"Sim Token ").append(i).append("\",\"symbol\":\"SIM").append(i).append("\"}")
+                    .append(",\"priceUsd\":\"").append(String.format(Locale.ROOT, "%.12f", price)).append('"')
+                    .append(",\"txns\":{\"h24\":{\"buys\":").append(buys[i]).append(",\"sells\":").append(sells[i]).append("}}")
+                    .append(",\"volume\":{\"h24\":").append(String.format(Locale.ROOT, "%.2f", volumes[i])).append('}')
+                    .append(",\"priceChange\":{\"h24\":").append(String.format(Locale.ROOT, "%.2f", random.nextDouble(-50, 150))).append('}')
+                    .append(",\"liquidity\":{\"usd\":").append(String.format(Locale.ROOT, "%.2f", liquidities[i])).append('}')
+                    .append(",\"marketCap\":").append((long) marketCaps[i])
+                    .append(",\"pairCreatedAt\":").append(createdAt[i]).append('}');
+        }
+    }
+
+    private void handleTelegram(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        telegramMessages.increment();
+        respond(exchange, 200, "{\"ok\":true,\"result\":{}}");
+    }
+
+    // Ayarlı gecikmeyi uygular; rastgele 429 ya da 503 döndüyse true
+    private boolean injectFault(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = config.latencyMs + (config.latencyJitterMs > 0 ? random.nextLong(config.latencyJitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double roll = random.nextDouble();
+        if (roll < config.rateLimitRate) {
+            rateLimited.increment();
+            exchange.getResponseHeaders().add("Retry-After", Long.toString(config.retryAfterSeconds));
+            respond(exchange, 429, "{\"error\":\"rate limited\"}");
+            return true;
+        }
+        if (roll < config.rateLimitRate + config.errorRate) {
+            errors.increment();
+            respond(exchange, 503, "{\"error\":\"unavailable\"}");
+            return true;
+        }
+        return false;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,142 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Botu yerel simülatöre karşı uçtan uca çalıştırır ve verim/gecikme/veritabanı büyümesini raporlar.
+// Kullanım: mvn -Ploadtest compile exec:exec -Dloadtest.args="-Dloadtest.durationSec=120 -Dsim.tokens=20000"
+// Botun kendi ayarları (enrich.*, poll.*, feeds...) da aynı şekilde -D ile verilebilir.
+public class LoadTestRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadTestRunner.class.getName());
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.shared();
+
+    public static void main(String[] args) throws Exception {
+        long duration = Long.getLong("loadtest.durationSec", 60);
+        long reportEvery = Long.getLong("loadtest.reportEverySec", 10);
+
+        DexSimulator.Config config = new DexSimulator.Config();
+        config.tokens = Integer.getInteger("sim.tokens", config.tokens);
+        config.entriesPerResponse = Integer.getInteger("sim.entriesPerResponse", config.entriesPerResponse);
+        config.churnPerRequest = Integer.getInteger("sim.churnPerRequest", config.churnPerRequest);
+        config.latencyMs = Long.getLong("sim.latencyMs", config.latencyMs);
+        config.latencyJitterMs = Long.getLong("sim.latencyJitterMs", config.latencyJitterMs);
+        config.errorRate = Double.parseDouble(System.getProperty("sim.errorRate", Double.toString(config.errorRate)));
+        config.rateLimitRate = Double.parseDouble(System.getProperty("sim.rateLimitRate", Double.toString(config.rateLimitRate)));
+        config.retryAfterSeconds = Long.getLong("sim.retryAfterSec", config.retryAfterSeconds);
+
+        DexSimulator simulator = new DexSimulator(config);
+        simulator.start();
+
+        // Bot simülatöre, geçici bir veritabanına ve kısa çekim aralıklarına yönlendirilir;
+        // komut satırında verilen değerler ezilmez
+        Path dir = Files.createTempDirectory("dex-loadtest");
+        Path dbFile = dir.resolve("loadtest.db");
+        String dbUrl = "jdbc:sqlite:" + dbFile;
+        defaultProperty("dex.baseUrl", simulator.baseUrl());
+        defaultProperty("telegram.baseUrl", simulator.baseUrl());
+        defaultProperty("db.url", dbUrl);
+        defaultProperty("metrics.port", "0");
+        defaultProperty("poll.intervalMs", "1000");
+        defaultProperty("poll.minIntervalMs", "250");
+        defaultProperty("poll.maxIntervalMs", "5000");
+        defaultProperty("poll.initialBackoffMs", "500");
+        defaultProperty("poll.maxBackoffMs", "10000");
+        defaultProperty("metrics.storeDir", dir.resolve("token-metrics").toString());
+        LOGGER.info("Yük testi: " + duration + " sn, veritabanı: " + dbFile);
+
+        long startNanos = System.nanoTime();
+        Main.main(new String[0]);
+
+        long elapsed;
+        while ((elapsed = (System.nanoTime() - startNanos) / 1_000_000_000L) < duration) {
+            Thread.sleep(Math.min(reportEvery, duration - elapsed) * 1000L);
+            System.out.println(progressLine((System.nanoTime() - startNanos) / 1e9, simulator));
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.println(report(seconds, simulator, dbFile, System.getProperty("db.url")));
+        simulator.close();
+        // Kapanış kancası botu sırasıyla durdurur ve bekleyen yazımları boşaltır
+        System.exit(0);
+    }
+
+    private static void defaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static String progressLine(double seconds, DexSimulator simulator) {
+        long scored = counter("scanner_tokens_scored_total").get();
+        return String.format(Locale.ROOT, "[%5.0f sn] puanlanan: %d (%.1f/sn), döngü p95: %.0f ms, liste isteği: %d, detay isteği: %d",
+                seconds, scored, scored / seconds, cycleSeconds().quantile(0.95) * 1000,
+                simulator.listRequests.sum(), simulator.detailRequests.sum());
+    }
+
+    private static String report(double seconds, DexSimulator simulator, Path dbFile, String dbUrl) {
+        MetricsRegistry.Histogram cycle = cycleSeconds();
+        MetricsRegistry.Histogram detail = METRICS.histogram("scanner_dex_request_seconds", "", "endpoint", "tokens");
+        MetricsRegistry.Histogram score = METRICS.histogram("scanner_score_seconds", "");
+        long scanned = counter("scanner_tokens_scanned_total").get();
+        long scored = counter("scanner_tokens_scored_total").get();
+        long gems = counter("scanner_gems_found_total").get();
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n==== Yük testi sonucu (").append(String.format(Locale.ROOT, "%.1f", seconds)).append(" sn) ====\n");
+        sb.append(String.format(Locale.ROOT, "Taranan kayıt:      %d (%.1f/sn)%n", scanned, scanned / seconds));
+        sb.append(String.format(Locale.ROOT, "Puanlanan token:    %d (%.1f/sn)%n", scored, scored / seconds));
+        sb.append(String.format(Locale.ROOT, "Gem / Telegram:     %d / %d mesaj%n", gems, simulator.telegramMessages.sum()));
+        sb.append(String.format(Locale.ROOT, "Döngü süresi (ms):  p50 %.1f  p95 %.1f  p99 %.1f  (n=%d)%n",
+                cycle.quantile(0.5) * 1000, cycle.quantile(0.95) * 1000, cycle.quantile(0.99) * 1000, cycle.count()));
+        sb.append(String.format(Locale.ROOT, "Detay isteği (ms):  p50 %.1f  p95 %.1f  p99 %.1f  (n=%d)%n",
+                detail.quantile(0.5) * 1000, detail.quantile(0.95) * 1000, detail.quantile(0.99) * 1000, detail.count()));
+        sb.append(String.format(Locale.ROOT, "Puanlama (ms):      p50 %.3f  p99 %.3f%n",
+                score.quantile(0.5) * 1000, score.quantile(0.99) * 1000));
+        sb.append(String.format(Locale.ROOT, "Simülatör:          liste %d, detay %d (%d adres), 5xx %d, 429 %d%n",
+                simulator.listRequests.sum(), simulator.detailRequests.sum(), simulator.detailAddresses.sum(),
+                simulator.errors.sum(), simulator.rateLimited.sum()));
+        long rows = countRows(dbUrl, "token_metrics");
+        long bytes = fileSize(dbFile) + fileSize(Path.of(dbFile + "-wal"));
+        sb.append(String.format(Locale.ROOT, "Veritabanı:         token_metrics %d satır (%.1f/sn), %.2f MB (%.1f KB/sn)%n",
+                rows, rows / seconds, bytes / 1048576.0, bytes / 1024.0 / seconds));
+        return sb.toString();
+    }
+
+    private static MetricsRegistry.Histogram cycleSeconds() {
+        return METRICS.histogram("scanner_cycle_seconds", "");
+    }
+
+    private static MetricsRegistry.Counter counter(String name) {
+        return METRICS.counter(name, "");
+    }
+
+    // Yazım arkada sürdüğü için sayım ayrı bir bağlantıdan yapılır; sonuç birkaç saniyelik kuyruğu içermeyebilir
+    private static long countRows(String dbUrl, String table) {
+        try (Connection conn = DriverManager.getConnection(dbUrl);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, table + " sayılamadı: " + e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+// Bir DexScreener listesini (feed) sabit aralık yerine listenin ne sıklıkla değiştiğine göre çeker.
+// Ham cevabın hash'i bir öncekiyle aynıysa cevap yeniden çözülmez ve aralık uzatılır; liste değiştikçe kısaltılır.
+// Dinleyici her başarılı çekimde son çözülen listeyle çağrılır: liste değişmese de TTL'i dolan ya da detayı
+// alınamayan tokenlar yeniden zenginleştirilebilsin diye yalnızca çözme adımı atlanır.
+// 429, 5xx ve bağlantı hatalarında jitter'lı üstel geri çekilme uygulanır, Retry-After varsa ondan kısa beklenmez.
+// Her çekim bir öncekinin bitmesinden sonra yeniden planlanır; aynı anda tek istek vardır.
+class AdaptivePoller<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptivePoller.class.getName());
+
+    // Liste değiştiğinde aralık bu oranla kısalır, değişmediğinde bu oranla uzar
+    private static final double SPEED_UP = 0.5;
+    private static final double SLOW_DOWN = 1.25;
+
+    interface Decoder<T> {
+        // Yalnızca cevap öncekinden farklıysa ham gövdeyle çağrılır
+        T decode(byte[] body) throws Exception;
+    }
+
+    interface Listener<T> {
+        // Her başarılı çekimde son çözülen cevapla çağrılır. false dönerse çekim durur.
+        boolean onPoll(T decoded) throws Exception;
+    }
+
+    private final String feed;
+    private final String url;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Decoder<T> decoder;
+    private final Listener<T> listener;
+    private final ScheduledExecutorService scheduler;
+    private final MetricsRegistry.Histogram requestSeconds;
+    private final MetricsRegistry.Counter retries;
+    private final MetricsRegistry.Counter changed;
+    private final MetricsRegistry.Counter unchanged;
+
+    // Yalnızca planlayıcı thread'inden erişilir
+    private long intervalMs;
+    private long lastChecksum = -1;
+    private T lastDecoded;
+    private int failures;
+    private volatile boolean running = true;
+
+    public AdaptivePoller(String feed, String url, long initialIntervalMs, long minIntervalMs, long maxIntervalMs,
+                          long initialBackoffMs, long maxBackoffMs, Decoder<T> decoder, Listener<T> listener) {
+        this.feed = feed;
+        this.url = url;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.intervalMs = Math.max(minIntervalMs, Math.min(maxIntervalMs, initialIntervalMs));
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.decoder = decoder;
+        this.listener = listener;
+        // Thread daemon değildir; kapanış kancası close çağırana kadar süreci ayakta tutar
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, feed + "-poller"));
+        MetricsRegistry metrics = MetricsRegistry.shared();
+        this.requestSeconds = metrics.histogram("scanner_dex_request_seconds", "DexScreener istek süresi", "endpoint", feed);
+        this.retries = metrics.counter("scanner_dex_retries_total", "Tekrar denenen DexScreener istekleri", "endpoint", feed);
+        this.changed = metrics.counter("scanner_feed_polls_total", "Feed çekimleri", "feed", feed, "result", "changed");
+        this.unchanged = metrics.counter("scanner_feed_polls_total", "Feed çekimleri", "feed", feed, "result", "unchanged");
+    }
+
+    public String feed() {
+        return feed;
+    }
+
+    public void start() {
+        schedule(0);
+    }
+
+    // Şu anki çekim aralığı (ms); geri çekilme süresi dahil değildir
+    public long intervalMs() {
+        return intervalMs;
+    }
+
+    private void schedule(long delayMs) {
+        if (!running) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::poll, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // close ile yarışta planlayıcı kapanmış olabilir
+        }
+    }
+
+    private void poll() {
+        long nextDelay;
+        try {
+            byte[] body;
+            try {
+                body = fetch();
+            } catch (IOException e) {
+                schedule(retryable(e) ? backoff(e) : rejected(e));
+                return;
+            }
+            failures = 0;
+            long checksum = checksum(body);
+            boolean bodyChanged = checksum != lastChecksum;
+            if (bodyChanged) {
+                changed.inc();
+                // Çözülemeyen cevap bir sonraki çekimde yeniden denensin diye hash çözümden sonra saklanır
+                lastDecoded = decoder.decode(body);
+                lastChecksum = checksum;
+            } else {
+                unchanged.inc();
+            }
+            if (!listener.onPoll(lastDecoded)) {
+                running = false;
+                return;
+            }
+            intervalMs = bodyChanged
+                    ? Math.max(minIntervalMs, (long) (intervalMs * SPEED_UP))
+                    : Math.min(maxIntervalMs, (long) (intervalMs * SLOW_DOWN));
+            nextDelay = intervalMs;
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // Çözme ya da işleme hatası sunucu kaynaklı değildir; geri çekilmeden normal aralıkla devam edilir
+            LOGGER.log(Level.WARNING, feed + " cevabı işlenemedi: " + e.getMessage(), e);
+            nextDelay = intervalMs;
+        }
+        schedule(nextDelay);
+    }
+
+    // 429, 5xx ve bağlantı/okuma hataları geçicidir; diğer HTTP durumları (ör. 404) tekrar denemeyle düzelmez
+    private static boolean retryable(IOException e) {
+        if (e instanceof HttpTransport.HttpStatusException status) {
+            return status.getStatusCode() == 429 || status.getStatusCode() >= 500;
+        }
+        return true;
+    }
+
+    // Tekrar denenmeyecek hata loglanır, çekim normal aralıkla sürer
+    private long rejected(IOException e) {
+        failures = 0;
+        LOGGER.log(Level.WARNING, feed + " isteği reddedildi, geri çekilme uygulanmıyor: " + e.getMessage(), e);
+        return intervalMs;
+    }
+
+    private byte[] fetch() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try (InputStream in = HttpTransport.shared().get(url)) {
+            return in.readAllBytes();
+        } finally {
+            requestSeconds.observeSince(start);
+        }
+    }
+
+    // Eşit jitter'lı (equal jitter) üstel geri çekilme: [gecikme/2, gecikme] aralığında rastgele; Retry-After bir alt sınırdır
+    private long backoff(Exception e) {
+        failures++;
+        retries.inc();
+        long exponential = initialBackoffMs << Math.min(failures - 1, 20);
+        long delay = Math.min(maxBackoffMs, exponential);
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        if (e instanceof HttpTransport.HttpStatusException status) {
+            delay = Math.max(delay, status.getRetryAfterMillis());
+        }
+        LOGGER.log(Level.WARNING, feed + " isteği başarısız oldu. Deneme: " + failures + " Hata: " + e.getMessage()
+                + ", " + delay + " ms sonra tekrar denenecek", e);
+        return delay;
+    }
+
+    // Aynı cevabı tanımak için CRC32C (donanım hızlandırmalı) ve uzunluk birlikte kullanılır
+    private static long checksum(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return (crc.getValue() << 32) ^ body.length;
+    }
+
+    // Yeni çekim planlanmaz; süren çekimin ve dinleyicinin bitmesi beklenir
+    @Override
+    public void close() {
+        running = false;
+        scheduler.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warning(feed + " çekimi zamanında durmadı");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
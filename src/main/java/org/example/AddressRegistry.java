@@ -0,0 +1,203 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Token adreslerini 0'dan başlayan yoğun int id'lere çevirir. Token başına bellekteki durum
+// (bildirim durumu, detay önbelleği, momentum) bu id ile indekslenen primitive dizilerde tutulur;
+// adres başına ayrı nesne ve map girdisi oluşmaz. İd'ler kalıcı değildir; veritabanına ve dosyalara
+// adresin kendisi yazılır.
+// Açık adresli (doğrusal sondalı) int tablo kullanır; bilinen bir adres tekrar sorulduğunda nesne ayrılmaz.
+// Uzun süre sorulmayan adreslerin id'leri idleIds/release ile serbest bırakılır ve yeni adreslere verilir;
+// böylece id ile indekslenen diziler görülen adres sayısıyla değil, yaşayan adres sayısıyla sınırlı kalır.
+class AddressRegistry {
+
+    private static final int EMPTY = -1;
+
+    // Kova -> id; kova sayısı her zaman 2'nin kuvveti
+    private int[] table;
+    // id -> adres (serbestse null), adresin hash'i (tablo büyütülürken yeniden hesaplanmaz) ve son sorulma zamanı
+    private String[] addresses;
+    private int[] hashes;
+    private long[] lastUsed;
+    // Serbest bırakılan id'ler; yeni adreslere önce bunlar verilir
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    // Verilmiş en büyük id + 1
+    private int highWater;
+    private int size;
+
+    public AddressRegistry(int expectedAddresses) {
+        int buckets = Integer.highestOneBit(Math.max(16, expectedAddresses * 2) - 1) << 1;
+        table = new int[buckets];
+        Arrays.fill(table, EMPTY);
+        addresses = new String[Math.max(16, expectedAddresses)];
+        hashes = new int[addresses.length];
+        lastUsed = new long[addresses.length];
+    }
+
+    // Adresin id'sini döner; ilk kez görülüyorsa yeni id verir
+    public synchronized int intern(String address) {
+        int hash = hash(address);
+        int mask = table.length - 1;
+        for (int bucket = hash & mask; ; bucket = (bucket + 1) & mask) {
+            int id = table[bucket];
+            if (id == EMPTY) {
+                return add(address, hash, bucket);
+            }
+            if (hashes[id] == hash && addresses[id].equals(address)) {
+                lastUsed[id] = System.currentTimeMillis();
+                return id;
+            }
+        }
+    }
+
+    public synchronized String address(int id) {
+        return addresses[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Serbest bırakma adayları: idleBefore'dan önce son kez sorulmuş adresler. Yaşayan adres sayısı
+    // maxAddresses'ı aşıyorsa en uzun süredir sorulmayanlar da fazlalık kadar eklenir; ancak
+    // latestCutoff'tan sonra sorulmuş bir adres hiçbir durumda aday olmaz.
+    public synchronized int[] idleIds(long idleBefore, long latestCutoff, int maxAddresses) {
+        // Fazlalık varsa en eski "excess" adresin en yenisinin zamanı; bu zamanda sorulmuş adreslerden
+        // yalnızca ties kadarı alınır ki aynı milisaniyedeki adresler yüzünden sınır aşılmasın
+        long capacityCutoff = Long.MIN_VALUE;
+        int ties = 0;
+        if (size > maxAddresses) {
+            long[] times = new long[size];
+            int n = 0;
+            for (int id = 0; id < highWater; id++) {
+                if (addresses[id] != null) {
+                    times[n++] = lastUsed[id];
+                }
+            }
+            Arrays.sort(times, 0, n);
+            int excess = size - maxAddresses;
+            capacityCutoff = times[excess - 1];
+            int first = excess - 1;
+            while (first > 0 && times[first - 1] == capacityCutoff) {
+                first--;
+            }
+            ties = excess - first;
+        }
+        int[] ids = new int[16];
+        int count = 0;
+        for (int id = 0; id < highWater; id++) {
+            if (addresses[id] == null || lastUsed[id] >= latestCutoff) {
+                continue;
+            }
+            long used = lastUsed[id];
+            boolean candidate = used < idleBefore || used < capacityCutoff;
+            if (!candidate && used == capacityCutoff && ties > 0) {
+                ties--;
+                candidate = true;
+            }
+            if (candidate) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    // Adayları serbest bırakır; idleIds'ten bu yana yeniden sorulmuş olanlar atlanır. Çağıran, id'ye bağlı
+    // durumu önceden temizlemiş ve id'yi tutan bir iş kalmadığından emin olmuş olmalıdır.
+    // Serbest bırakılan id sayısını döner.
+    public synchronized int release(int[] ids, long usedBefore) {
+        int released = 0;
+        for (int id : ids) {
+            if (id < highWater && addresses[id] != null && lastUsed[id] < usedBefore) {
+                remove(id);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    private int add(String address, int hash, int bucket) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = highWater++;
+            if (id == addresses.length) {
+                addresses = Arrays.copyOf(addresses, id * 2);
+                hashes = Arrays.copyOf(hashes, id * 2);
+                lastUsed = Arrays.copyOf(lastUsed, id * 2);
+            }
+        }
+        size++;
+        addresses[id] = address;
+        hashes[id] = hash;
+        lastUsed[id] = System.currentTimeMillis();
+        table[bucket] = id;
+        // Doluluk %50'yi geçince tablo iki katına çıkarılır
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    // Doğrusal sondalı tabloda mezar taşı bırakmadan siler: boşluktan sonraki zincir geri kaydırılır
+    private void remove(int id) {
+        int mask = table.length - 1;
+        int hole = hashes[id] & mask;
+        while (table[hole] != id) {
+            hole = (hole + 1) & mask;
+        }
+        table[hole] = EMPTY;
+        for (int bucket = (hole + 1) & mask; table[bucket] != EMPTY; bucket = (bucket + 1) & mask) {
+            int home = hashes[table[bucket]] & mask;
+            // Girdi, ev kovası ile bulunduğu kova arasında kalan boşluğa taşınabilir
+            if (((bucket - home) & mask) >= ((bucket - hole) & mask)) {
+                table[hole] = table[bucket];
+                table[bucket] = EMPTY;
+                hole = bucket;
+            }
+        }
+        addresses[id] = null;
+        size--;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    private void rehash(int buckets) {
+        int[] resized = new int[buckets];
+        Arrays.fill(resized, EMPTY);
+        int mask = buckets - 1;
+        for (int id = 0; id < highWater; id++) {
+            if (addresses[id] == null) {
+                continue;
+            }
+            int bucket = hashes[id] & mask;
+            while (resized[bucket] != EMPTY) {
+                bucket = (bucket + 1) & mask;
+            }
+            resized[bucket] = id;
+        }
+        table = resized;
+    }
+
+    // String.hashCode'un alt bitleri benzer adreslerde kümelenebildiği için karıştırılır
+    private static int hash(String address) {
+        int h = address.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // İd ile indekslenen dizileri registry büyüdükçe genişletmek için
+    static int grownCapacity(int current, int id) {
+        int capacity = Math.max(16, current);
+        while (capacity <= id) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+// Aynı SQLite veritabanını paylaşan birden fazla sürecin token adreslerini bölüşmesini sağlar.
+// Her örnek cluster_members tablosuna düzenli kalp atışı yazar ve kirasını uzatır; kirası süren üyelerden
+// tutarlı hash halkası kurulur ve her örnek yalnızca halkada kendisine düşen adresleri zenginleştirir.
+// Üyelik değişirken bir adres kısa süre iki örnekte birden işlenebilir; iki örneğin aynı bildirimi aynı anda
+// göndermesini DatabaseManager.claimTokenInfo'daki koşullu upsert engeller. Teslim garantisi "tam bir kez"
+// değildir: hakkı alan örnek gönderimden önce çökerse bildirim bekleme süresi dolana kadar kaçar (en fazla
+// bir kez), Telegram'a ulaşmış ama cevabı zaman aşımına uğramış bir mesaj tekrar denenirse iki kez gider
+// (en az bir kez). Telegram Bot API'de tekrar gönderimi ayıklayacak bir idempotency anahtarı yoktur.
+class ClusterCoordinator implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ClusterCoordinator.class.getName());
+
+    private static final MetricsRegistry.Counter NOT_OWNED = MetricsRegistry.shared().counter(
+            "scanner_cluster_skipped_total", "Başka bir örneğe düştüğü için atlanan feed kayıtları");
+
+    private final Main.DatabaseManager dbManager;
+    private final String instanceId;
+    private final long heartbeatMillis;
+    private final long leaseMillis;
+    private final int virtualNodes;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cluster-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile ConsistentHashRing ring;
+
+    public ClusterCoordinator(Main.DatabaseManager dbManager, String instanceId, long heartbeatMillis,
+                              long leaseMillis, int virtualNodes) {
+        this.dbManager = dbManager;
+        this.instanceId = instanceId;
+        this.heartbeatMillis = heartbeatMillis;
+        this.leaseMillis = leaseMillis;
+        this.virtualNodes = virtualNodes;
+        this.ring = new ConsistentHashRing(List.of(instanceId), virtualNodes);
+    }
+
+    // İlk kalp atışı hemen yazılır ki örnek, diğer üyeleri görmeden tüm adresleri sahiplenmesin
+    public void start() {
+        heartbeat();
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Adres bu örneğe düşüyorsa true. EVM adresleri harf duyarsız olduğundan normalize edilir.
+    public boolean owns(String tokenAddress) {
+        boolean owned = instanceId.equals(ring.owner(DexScreenerDecoder.normalizeAddress(tokenAddress)));
+        if (!owned) {
+            NOT_OWNED.inc();
+        }
+        return owned;
+    }
+
+    public int memberCount() {
+        return ring.members().size();
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        List<String> members = dbManager.heartbeat(instanceId, now, now + leaseMillis);
+        if (members == null) {
+            // Veritabanına yazılamadıysa bilinen son halka ile devam edilir
+            return;
+        }
+        if (!members.contains(instanceId)) {
+            members.add(instanceId);
+        }
+        if (!members.equals(ring.members())) {
+            ring = new ConsistentHashRing(members, virtualNodes);
+            LOGGER.info("Küme üyeliği değişti: " + members);
+        }
+    }
+
+    // Üyelik silinir; diğer örnekler bir sonraki kalp atışında bu örneğin payını devralır
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dbManager.removeMember(instanceId);
+    }
+}
@@ -0,0 +1,319 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// token_metrics anlık görüntülerini SQLite satırları yerine gün bazında bölümlenmiş, yalnızca sona eklenen
+// sütun dosyalarında tutar. Her gün için bir klasör ve her sütun için bir dosya vardır:
+//   <dizin>/2024-05-01/timestamp.col, token.col, marketCap.col, liquidity.col, volume.col, txns.col, priceChange.col
+// Dosyalar belleğe eşlenir (mmap); taramalar kopyalamadan doğrudan eşlenmiş bellekten okur.
+// Token adresleri tokens.dict dosyasında satır numarası = token id olacak şekilde tutulur.
+// rows.meta, bölümdeki kayıt sayısını tutar. Bir toplu yazımda önce yeni adresler sözlüğe yazılıp boşaltılır,
+// sonra sütunlara eklenir ve kayıt sayısı en son yayınlanır; yarıda kesilen bir yazımdan sonra okuyucu
+// sözlükte olmayan bir token id'si ya da yazılmamış bir satır görmez.
+// Yalnızca yazılan (en yeni) gün eşlenmiş kalır; okunan eski günler iş bitince kapatılır, böylece
+// eşlenmiş bellek ve açık dosya sayısı gün sayısıyla büyümez.
+class ColumnarMetricsStore implements TokenMetricsStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ColumnarMetricsStore.class.getName());
+
+    private static final long DAY_MS = 24L * 60L * 60L * 1000L;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final String DICTIONARY_FILE = "tokens.dict";
+    private static final String META_FILE = "rows.meta";
+
+    private static final int COL_TIMESTAMP = 0;
+    private static final int COL_TOKEN = 1;
+    private static final int COL_MARKET_CAP = 2;
+    private static final int COL_LIQUIDITY = 3;
+    private static final int COL_VOLUME = 4;
+    private static final int COL_TXNS = 5;
+    private static final int COL_PRICE_CHANGE = 6;
+    private static final String[] COLUMN_NAMES = {
+            "timestamp", "token", "marketCap", "liquidity", "volume", "txns", "priceChange"
+    };
+    private static final int[] COLUMN_WIDTHS = {8, 4, 8, 8, 8, 4, 8};
+
+    private final Path directory;
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    private final List<String> tokenAddresses = new ArrayList<>();
+    private final BufferedWriter dictionary;
+    // Gün numarası (epoch günü) -> bölüm
+    private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+    // Yazılan en yeni gün; kapatılmayan tek bölüm
+    private long activeDay = Long.MIN_VALUE;
+
+    public ColumnarMetricsStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Path dictionaryFile = directory.resolve(DICTIONARY_FILE);
+        if (Files.exists(dictionaryFile)) {
+            for (String address : Files.readAllLines(dictionaryFile, StandardCharsets.UTF_8)) {
+                tokenIds.put(address, tokenAddresses.size());
+                tokenAddresses.add(address);
+            }
+        }
+        this.dictionary = Files.newBufferedWriter(dictionaryFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path day : days) {
+                try {
+                    long epochDay = LocalDate.parse(day.getFileName().toString()).toEpochDay();
+                    partitions.put(epochDay, new Partition(day));
+                } catch (DateTimeParseException e) {
+                    LOGGER.warning("Gün bölümü olmayan klasör atlandı: " + day);
+                }
+            }
+        }
+        LOGGER.info("Sütun deposu açıldı: " + directory + " (" + partitions.size() + " gün, " + tokenAddresses.size() + " token)");
+    }
+
+    @Override
+    public synchronized void insertTokenMetricsBatch(List<Main.DatabaseManager.TokenMetric> metrics) {
+        try {
+            int[] ids = new int[metrics.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = tokenId(metrics.get(i).tokenAddress);
+            }
+            dictionary.flush();
+            Set<Partition> touched = new HashSet<>();
+            for (int i = 0; i < ids.length; i++) {
+                Main.DatabaseManager.TokenMetric metric = metrics.get(i);
+                Partition partition = partitionFor(metric.createdAt);
+                partition.append(metric.createdAt, ids[i], metric.marketCap, metric.liquidityUsd, metric.volume24h,
+                        metric.txns24h, metric.priceChange24h);
+                touched.add(partition);
+            }
+            for (Partition partition : touched) {
+                partition.publish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sütun deposuna yazılamadı", e);
+        } finally {
+            closeInactive();
+        }
+    }
+
+    @Override
+    public synchronized void loadStatistics(TokenStatistics statistics) {
+        try {
+            seedStatistics(statistics);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sütun deposu okunamadı", e);
+        } finally {
+            closeInactive();
+        }
+    }
+
+    private void seedStatistics(TokenStatistics statistics) throws IOException {
+        Aggregate totals = aggregate(Long.MIN_VALUE, Long.MAX_VALUE);
+        statistics.seedTotals(totals.count, totals.sumMarketCap, totals.sumLiquidity, totals.sumVolume);
+
+        // En yeni günden geriye doğru pencere kapasitesi kadar kayıt toplanır
+        int wanted = statistics.windowCapacity();
+        List<Main.DatabaseManager.TokenMetric> recent = new ArrayList<>(wanted);
+        for (Partition partition : partitions.descendingMap().values()) {
+            partition.open();
+            for (int row = partition.rows - 1; row >= 0 && recent.size() < wanted; row--) {
+                recent.add(new Main.DatabaseManager.TokenMetric(null, partition.getLong(COL_MARKET_CAP, row),
+                        partition.getDouble(COL_LIQUIDITY, row), partition.getDouble(COL_VOLUME, row),
+                        partition.getLong(COL_TIMESTAMP, row)));
+            }
+            if (recent.size() >= wanted) {
+                break;
+            }
+        }
+        recent.sort(Comparator.comparingLong(m -> m.createdAt));
+        for (Main.DatabaseManager.TokenMetric metric : recent) {
+            statistics.seedRecent(metric.marketCap, metric.liquidityUsd, metric.volume24h, metric.createdAt);
+        }
+    }
+
+    // [from, to] aralığındaki tüm kayıtların sayısı ve toplamları
+    private Aggregate aggregate(long from, long to) throws IOException {
+        Aggregate result = new Aggregate();
+        for (Partition partition : partitionsBetween(from, to)) {
+            partition.open();
+            for (int row = 0; row < partition.rows; row++) {
+                long timestamp = partition.getLong(COL_TIMESTAMP, row);
+                if (timestamp < from || timestamp > to) {
+                    continue;
+                }
+                result.count++;
+                result.sumMarketCap += partition.getLong(COL_MARKET_CAP, row);
+                result.sumLiquidity += partition.getDouble(COL_LIQUIDITY, row);
+                result.sumVolume += partition.getDouble(COL_VOLUME, row);
+            }
+        }
+        return result;
+    }
+
+    private Collection<Partition> partitionsBetween(long from, long to) {
+        return partitions.subMap(Math.floorDiv(from, DAY_MS), true, Math.floorDiv(to, DAY_MS), true).values();
+    }
+
+    private Partition partitionFor(long timestamp) throws IOException {
+        long epochDay = Math.floorDiv(timestamp, DAY_MS);
+        Partition partition = partitions.get(epochDay);
+        if (partition == null) {
+            partition = new Partition(directory.resolve(LocalDate.ofEpochDay(epochDay).toString()));
+            partitions.put(epochDay, partition);
+        }
+        activeDay = Math.max(activeDay, epochDay);
+        return partition.open();
+    }
+
+    // Yazılan en yeni gün dışındaki açık bölümlerin eşlemelerini bırakır ve dosyalarını kapatır;
+    // geç gelen bir kayıt ya da okuma eski bir günü gerektiğinde yeniden açar
+    private void closeInactive() {
+        for (Map.Entry<Long, Partition> entry : partitions.entrySet()) {
+            if (entry.getKey() != activeDay) {
+                entry.getValue().close();
+            }
+        }
+    }
+
+    private int tokenId(String tokenAddress) throws IOException {
+        Integer id = tokenIds.get(tokenAddress);
+        if (id != null) {
+            return id;
+        }
+        int newId = tokenAddresses.size();
+        dictionary.write(tokenAddress);
+        dictionary.newLine();
+        tokenIds.put(tokenAddress, newId);
+        tokenAddresses.add(tokenAddress);
+        return newId;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Partition partition : partitions.values()) {
+            partition.close();
+        }
+        try {
+            dictionary.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Token sözlüğü kapatılırken hata: " + e.getMessage(), e);
+        }
+    }
+
+    private static class Aggregate {
+        long count;
+        double sumMarketCap;
+        double sumLiquidity;
+        double sumVolume;
+    }
+
+    // Tek bir günün sütun dosyaları; gerektiğinde açılır ve eşlenir. Kapasite dolunca dosyalar iki katına
+    // büyütülüp yeniden eşlenir. Kapatılan bölümün eşlemelerine referans kalmaz, GC eşlemeyi bırakır.
+    private static class Partition {
+        private final Path dir;
+        private FileChannel[] channels;
+        private MappedByteBuffer[] columns;
+        private FileChannel metaChannel;
+        private MappedByteBuffer meta;
+        private int rows;
+        private int capacity;
+
+        Partition(Path dir) {
+            this.dir = dir;
+        }
+
+        Partition open() throws IOException {
+            if (channels != null) {
+                return this;
+            }
+            Files.createDirectories(dir);
+            channels = new FileChannel[COLUMN_NAMES.length];
+            columns = new MappedByteBuffer[COLUMN_NAMES.length];
+            metaChannel = FileChannel.open(dir.resolve(META_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+            meta.order(ByteOrder.LITTLE_ENDIAN);
+            rows = (int) meta.getLong(0);
+            for (int c = 0; c < COLUMN_NAMES.length; c++) {
+                channels[c] = FileChannel.open(dir.resolve(COLUMN_NAMES[c] + ".col"),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            capacity = Math.max(INITIAL_CAPACITY, (int) (channels[COL_TIMESTAMP].size() / COLUMN_WIDTHS[COL_TIMESTAMP]));
+            map();
+            return this;
+        }
+
+        private void map() throws IOException {
+            for (int c = 0; c < COLUMN_NAMES.length; c++) {
+                columns[c] = channels[c].map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * COLUMN_WIDTHS[c]);
+                columns[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        void append(long timestamp, int tokenId, long marketCap, double liquidityUsd, double volume24h,
+                    int txns24h, double priceChange24h) throws IOException {
+            if (rows == capacity) {
+                capacity *= 2;
+                map();
+            }
+            int row = rows;
+            columns[COL_TIMESTAMP].putLong(row * 8, timestamp);
+            columns[COL_TOKEN].putInt(row * 4, tokenId);
+            columns[COL_MARKET_CAP].putLong(row * 8, marketCap);
+            columns[COL_LIQUIDITY].putDouble(row * 8, liquidityUsd);
+            columns[COL_VOLUME].putDouble(row * 8, volume24h);
+            columns[COL_TXNS].putInt(row * 4, txns24h);
+            columns[COL_PRICE_CHANGE].putDouble(row * 8, priceChange24h);
+            rows = row + 1;
+        }
+
+        // Eklenen satırları diske yazılmış kayıt sayısına yansıtır
+        void publish() {
+            meta.putLong(0, rows);
+        }
+
+        long getLong(int column, int row) {
+            return columns[column].getLong(row * 8);
+        }
+
+        double getDouble(int column, int row) {
+            return columns[column].getDouble(row * 8);
+        }
+
+        int getInt(int column, int row) {
+            return columns[column].getInt(row * 4);
+        }
+
+        void close() {
+            if (channels == null) {
+                return;
+            }
+            try {
+                for (int c = 0; c < COLUMN_NAMES.length; c++) {
+                    columns[c].force();
+                    channels[c].close();
+                }
+                meta.force();
+                metaChannel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Sütun dosyaları kapatılırken hata: " + e.getMessage(), e);
+            }
+            channels = null;
+            columns = null;
+            metaChannel = null;
+            meta = null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Token adreslerini küme üyelerine tutarlı hash ile dağıtır. Her üye halkaya virtualNodes kadar noktayla
+// yerleşir; bir üye girip çıktığında yalnızca onun aralıklarındaki adreslerin sahibi değişir.
+// Halka değişmez; üyelik değişince yenisi kurulur. Sorgu sıralı dizide ikili aramadır, nesne ayırmaz.
+class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> members;
+
+    public ConsistentHashRing(List<String> members, int virtualNodes) {
+        this.members = List.copyOf(members);
+        int size = members.size() * virtualNodes;
+        long[] hashes = new long[size];
+        int[] order = new int[size];
+        for (int m = 0; m < members.size(); m++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                int i = m * virtualNodes + v;
+                hashes[i] = hash(members.get(m) + '#' + v);
+                order[i] = m;
+            }
+        }
+        // Noktalar hash'e göre sıralanır; eşit hash'lerde üye sırası sonucu belirler
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> hashes[a] != hashes[b]
+                ? Long.compare(hashes[a], hashes[b])
+                : members.get(order[a]).compareTo(members.get(order[b])));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[sorted[i]];
+            owners[i] = members.get(order[sorted[i]]);
+        }
+    }
+
+    // Adresin sahibi: hash'inden sonraki ilk nokta (saat yönünde); halka boşsa null
+    public String owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    // FNV-1a 64 ve ardından karıştırma; String.hashCode'un 32 biti halkayı dengeli dağıtmaya yetmiyor
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,239 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+// DexScreener cevaplarını ağaç kurmadan, Jackson JsonParser ile akış halinde okur.
+// Kullanılmayan alanlar skipChildren ile atlanır.
+class DexScreenerDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String UNKNOWN = "Bilinmiyor";
+
+    private DexScreenerDecoder() {
+    }
+
+    // token-boosts cevabındaki diziyi BoostEntry listesine çevirir
+    public static List<Main.BoostEntry> decodeBoosts(InputStream in) throws IOException {
+        List<Main.BoostEntry> entries = new ArrayList<>();
+        try (JsonParser p = JSON_FACTORY.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Beklenmeyen boosts cevabı: dizi bekleniyordu");
+            }
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                entries.add(readBoost(p));
+            }
+        }
+        return entries;
+    }
+
+    private static Main.BoostEntry readBoost(JsonParser p) throws IOException {
+        String chainId = UNKNOWN;
+        String tokenAddress = UNKNOWN;
+        double amount = 0.0;
+        double totalAmount = 0.0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "chainId" -> chainId = textOr(p, value, UNKNOWN);
+                case "tokenAddress" -> tokenAddress = textOr(p, value, UNKNOWN);
+                case "amount" -> amount = numberOr(p, value, 0.0);
+                case "totalAmount" -> totalAmount = numberOr(p, value, 0.0);
+                default -> p.skipChildren();
+            }
+        }
+        return new Main.BoostEntry(chainId, tokenAddress, amount, totalAmount);
+    }
+
+    // latest/dex/tokens cevabındaki pairs dizisini okur ve pair'leri baseToken.address'e göre ayırır.
+    // requested: normalize edilmiş adres -> istekte kullanılan adres.
+    // bestLiquidity false ise her adresin ilk pair'i, true ise likiditesi en yüksek pair'i tutulur.
+    public static Map<String, Main.TokenData> decodePairs(InputStream in, Map<String, String> requested,
+                                                         boolean bestLiquidity) throws IOException {
+        Map<String, Main.TokenData> result = new HashMap<>();
+        try (JsonParser p = JSON_FACTORY.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Beklenmeyen detay cevabı: nesne bekleniyordu");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!"pairs".equals(field) || value != JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+                PairReader reader = new PairReader();
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    reader.read(p, requested, result, bestLiquidity);
+                }
+            }
+        }
+        return result;
+    }
+
+    static String normalizeAddress(String address) {
+        return address.startsWith("0x") ? address.toLowerCase(Locale.ROOT) : address;
+    }
+
+    // Tek bir pair nesnesinin alanlarını tutan, pair'ler arasında yeniden kullanılan okuyucu
+    private static class PairReader {
+        String address;
+        String dexId;
+        double priceUsd;
+        double priceChange24h;
+        double liquidityUsd;
+        double volume24h;
+        String baseTokenSymbol;
+        String baseTokenName;
+        int marketCap;
+        String pairUrl;
+        long pairCreatedAt;
+        int buys24h;
+        int sells24h;
+
+        void reset() {
+            address = null;
+            dexId = UNKNOWN;
+            priceUsd = 0.0;
+            priceChange24h = 0.0;
+            liquidityUsd = 0.0;
+            volume24h = 0.0;
+            baseTokenSymbol = UNKNOWN;
+            baseTokenName = UNKNOWN;
+            marketCap = 0;
+            pairUrl = UNKNOWN;
+            pairCreatedAt = 0;
+            buys24h = 0;
+            sells24h = 0;
+        }
+
+        void read(JsonParser p, Map<String, String> requested, Map<String, Main.TokenData> result,
+                  boolean bestLiquidity) throws IOException {
+            reset();
+            String key = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "dexId" -> dexId = textOr(p, value, UNKNOWN);
+                    case "url" -> pairUrl = textOr(p, value, UNKNOWN);
+                    case "priceUsd" -> priceUsd = numberOr(p, value, 0.0);
+                    case "marketCap" -> marketCap = (int) numberOr(p, value, 0.0);
+                    case "pairCreatedAt" -> pairCreatedAt = (long) numberOr(p, value, 0.0);
+                    case "priceChange" -> priceChange24h = readChild(p, value, "h24");
+                    case "liquidity" -> liquidityUsd = readChild(p, value, "usd");
+                    case "volume" -> volume24h = readChild(p, value, "h24");
+                    case "txns" -> readTxns(p, value);
+                    case "baseToken" -> {
+                        readBaseToken(p, value);
+                        key = address == null ? null : requested.get(normalizeAddress(address));
+                        // İstenmeyen ya da zaten karşılanmış bir token ise pair'in kalanını okumaya gerek yok
+                        if (key == null || (!bestLiquidity && result.containsKey(key))) {
+                            skipRestOfObject(p);
+                            return;
+                        }
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            if (key == null) {
+                return;
+            }
+            Main.TokenData existing = result.get(key);
+            if (existing == null || (bestLiquidity && liquidityUsd > existing.liquidityUsd)) {
+                result.put(key, new Main.TokenData(dexId, priceUsd, priceChange24h, liquidityUsd, volume24h,
+                        baseTokenSymbol, baseTokenName, marketCap, pairUrl, pairCreatedAt, buys24h, sells24h));
+            }
+        }
+
+        private void readBaseToken(JsonParser p, JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                return;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken v = p.nextToken();
+                switch (field) {
+                    case "address" -> address = textOr(p, v, null);
+                    case "symbol" -> baseTokenSymbol = textOr(p, v, UNKNOWN);
+                    case "name" -> baseTokenName = textOr(p, v, UNKNOWN);
+                    default -> p.skipChildren();
+                }
+            }
+        }
+
+        private void readTxns(JsonParser p, JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                return;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken v = p.nextToken();
+                if (!"h24".equals(field) || v != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    JsonToken n = p.nextToken();
+                    switch (name) {
+                        case "buys" -> buys24h = (int) numberOr(p, n, 0.0);
+                        case "sells" -> sells24h = (int) numberOr(p, n, 0.0);
+                        default -> p.skipChildren();
+                    }
+                }
+            }
+        }
+    }
+
+    // {"h24": 1.5, ...} gibi bir nesneden tek bir sayısal alanı okur
+    private static double readChild(JsonParser p, JsonToken value, String wanted) throws IOException {
+        double result = 0.0;
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return result;
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken v = p.nextToken();
+            if (wanted.equals(field)) {
+                result = numberOr(p, v, 0.0);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static void skipRestOfObject(JsonParser p) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            p.nextToken();
+            p.skipChildren();
+        }
+    }
+
+    private static String textOr(JsonParser p, JsonToken value, String fallback) throws IOException {
+        if (value == JsonToken.VALUE_NULL || value.isStructStart()) {
+            p.skipChildren();
+            return fallback;
+        }
+        return p.getValueAsString(fallback);
+    }
+
+    // org.json'daki optDouble gibi, sayı olarak yazılmış string değerleri de kabul eder
+    private static double numberOr(JsonParser p, JsonToken value, double fallback) throws IOException {
+        if (value.isStructStart()) {
+            p.skipChildren();
+            return fallback;
+        }
+        return p.getValueAsDouble(fallback);
+    }
+}
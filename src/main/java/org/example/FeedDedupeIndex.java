@@ -0,0 +1,117 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Birden fazla feed'den gelen token kayıtlarını zenginleştirmeden önce birleştirir.
+// Kayıtlar (chainId, tokenAddress) çiftiyle tanınır; aynı token pencere süresi içinde hangi feed'den
+// gelirse gelsin yalnızca bir kez geçer. Toplam boost miktarı (totalAmount) o ana kadar görülenin üstüne
+// çıkan bir kayıt pencere dolmadan da geçer, böylece TokenDetailCache'in boost değişimi sinyali kaybolmaz.
+// Yalnızca artış değişim sayılır: aynı token farklı feed'lerde farklı miktarlarla geliyorsa her çekimde
+// yeniden geçmez.
+// Anahtarlar kendi AddressRegistry'sinde id'ye çevrilir, durum id ile indekslenen primitive dizilerde durur.
+// Pencere boyunca hiçbir feed'de görülmeyen anahtarlar pencerede bir süpürülür ve id'leri yeniden kullanılır;
+// böyle bir kayıt geri geldiğinde zaten pencere dolmuş olacağından karar değişmez.
+class FeedDedupeIndex {
+
+    private final long windowMillis;
+    private final AddressRegistry keys;
+
+    // id -> son geçişin zamanı ve görülen en büyük toplam boost miktarı
+    private long[] acceptedAt;
+    private double[] totalAmount;
+    private long nextSweepAt = Long.MIN_VALUE;
+
+    public FeedDedupeIndex(long windowMillis, int expectedTokens) {
+        this.windowMillis = windowMillis;
+        this.keys = new AddressRegistry(expectedTokens);
+        this.acceptedAt = new long[Math.max(16, expectedTokens)];
+        this.totalAmount = new double[acceptedAt.length];
+        Arrays.fill(acceptedAt, Long.MIN_VALUE);
+    }
+
+    // Pencere içinde görülmemiş ya da boost'u artmış kayıtları döner. Aynı listede aynı anahtarla gelen
+    // kayıtlar önce en büyük amount/totalAmount'u taşıyan tek kayda indirgenir.
+    public synchronized List<Main.BoostEntry> admit(List<Main.BoostEntry> entries, long now) {
+        if (now >= nextSweepAt) {
+            sweep(now);
+            nextSweepAt = now + windowMillis;
+        }
+        Map<String, Main.BoostEntry> collapsed = new LinkedHashMap<>();
+        for (Main.BoostEntry entry : entries) {
+            collapsed.merge(key(entry.chainId, entry.tokenAddress), entry, FeedDedupeIndex::larger);
+        }
+        List<Main.BoostEntry> admitted = new ArrayList<>();
+        for (Main.BoostEntry entry : collapsed.values()) {
+            if (admit(entry, now)) {
+                admitted.add(entry);
+            }
+        }
+        return admitted;
+    }
+
+    // Kaydın bir sonraki çekimde pencereyi beklemeden yeniden geçmesini sağlar (ör. detayı alınamadıysa)
+    public synchronized void forget(Main.BoostEntry entry) {
+        int id = keys.intern(key(entry.chainId, entry.tokenAddress));
+        if (id < acceptedAt.length) {
+            acceptedAt[id] = Long.MIN_VALUE;
+        }
+    }
+
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    // Pencere boyunca görülmemiş anahtarları bırakır; id'leri yeni anahtarlara temiz durumla verilir
+    private void sweep(long now) {
+        long idleBefore = now - windowMillis;
+        int[] ids = keys.idleIds(idleBefore, idleBefore, Integer.MAX_VALUE);
+        for (int id : ids) {
+            if (id < acceptedAt.length) {
+                acceptedAt[id] = Long.MIN_VALUE;
+                totalAmount[id] = 0;
+            }
+        }
+        keys.release(ids, idleBefore);
+    }
+
+    private boolean admit(Main.BoostEntry entry, long now) {
+        int id = keys.intern(key(entry.chainId, entry.tokenAddress));
+        if (id >= acceptedAt.length) {
+            int capacity = AddressRegistry.grownCapacity(acceptedAt.length, id);
+            int old = acceptedAt.length;
+            acceptedAt = Arrays.copyOf(acceptedAt, capacity);
+            Arrays.fill(acceptedAt, old, capacity, Long.MIN_VALUE);
+            totalAmount = Arrays.copyOf(totalAmount, capacity);
+        }
+        // Profil listeleri boost taşımaz; miktarı olmayan ya da azalan kayıt boost değişimi sayılmaz
+        boolean boostChanged = entry.totalAmount > totalAmount[id];
+        if (boostChanged) {
+            totalAmount[id] = entry.totalAmount;
+        }
+        if (acceptedAt[id] != Long.MIN_VALUE && now - acceptedAt[id] < windowMillis && !boostChanged) {
+            return false;
+        }
+        acceptedAt[id] = now;
+        return true;
+    }
+
+    private static Main.BoostEntry larger(Main.BoostEntry a, Main.BoostEntry b) {
+        if (b.amount <= a.amount && b.totalAmount <= a.totalAmount) {
+            return a;
+        }
+        if (a.amount <= b.amount && a.totalAmount <= b.totalAmount) {
+            return b;
+        }
+        return new Main.BoostEntry(a.chainId, a.tokenAddress,
+                Math.max(a.amount, b.amount), Math.max(a.totalAmount, b.totalAmount));
+    }
+
+    // EVM adresleri harf duyarsız, diğerleri duyarlı; zincir adı anahtarın parçasıdır
+    static String key(String chainId, String tokenAddress) {
+        return chainId + ':' + DexScreenerDecoder.normalizeAddress(tokenAddress);
+    }
+}
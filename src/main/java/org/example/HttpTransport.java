@@ -0,0 +1,157 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+// Tüm HTTP çağrılarının paylaştığı istemci. Bağlantılar keep-alive ile yeniden kullanılır,
+// sunucu destekliyorsa HTTP/2 konuşulur ve gzip cevaplar akış halinde açılır.
+class HttpTransport {
+
+    private static final HttpTransport SHARED = new HttpTransport(Duration.ofSeconds(10), Duration.ofSeconds(15));
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    public HttpTransport(Duration connectTimeout, Duration requestTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requestTimeout = requestTimeout;
+    }
+
+    public static HttpTransport shared() {
+        return SHARED;
+    }
+
+    // Cevap gövdesini ham byte akışı olarak döner; 200 dışındaki durum kodları HttpStatusException ile tamamlanır.
+    public CompletableFuture<InputStream> getAsync(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .whenComplete((response, error) -> record(request, response, error))
+                .thenApply(HttpTransport::bodyOrThrow);
+    }
+
+    public InputStream get(String url) throws IOException, InterruptedException {
+        return await(getAsync(url));
+    }
+
+    // Telegram gibi küçük JSON cevapları için gövde string olarak döner; durum kodu çağırana bırakılır
+    public CompletableFuture<HttpResponse<String>> postJsonAsync(String url, String json) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .whenComplete((response, error) -> record(request, response, error));
+    }
+
+    public HttpResponse<String> postJson(String url, String json) throws IOException, InterruptedException {
+        return await(postJsonAsync(url, json));
+    }
+
+    // Host ve durum kodu başına cevap sayısı; cevap alınamayan istekler ayrı sayılır
+    private static void record(HttpRequest request, HttpResponse<?> response, Throwable error) {
+        String host = request.uri().getHost();
+        if (response != null) {
+            MetricsRegistry.shared().counter("scanner_http_responses_total", "Host ve durum koduna göre HTTP cevapları",
+                    "host", host, "status", Integer.toString(response.statusCode())).inc();
+        } else if (error != null) {
+            MetricsRegistry.shared().counter("scanner_http_errors_total", "Cevap alınamayan HTTP istekleri",
+                    "host", host).inc();
+        }
+    }
+
+    private static InputStream bodyOrThrow(HttpResponse<InputStream> response) {
+        try {
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new CompletionException(new HttpStatusException(response.statusCode(),
+                        retryAfterMillis(response.headers().firstValue("Retry-After").orElse(null), System.currentTimeMillis())));
+            }
+            InputStream body = response.body();
+            boolean gzip = response.headers().firstValue("Content-Encoding")
+                    .map(v -> v.equalsIgnoreCase("gzip"))
+                    .orElse(false);
+            return gzip ? new GZIPInputStream(body, 8192) : body;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // Retry-After saniye ya da HTTP tarihi olabilir; başlık yoksa ya da okunamazsa 0 döner
+    static long retryAfterMillis(String header, long now) {
+        if (header == null || header.isBlank()) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                long at = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Math.max(0, at - now);
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    static class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+        private final long retryAfterMillis;
+
+        public HttpStatusException(int statusCode) {
+            this(statusCode, 0);
+        }
+
+        public HttpStatusException(int statusCode, long retryAfterMillis) {
+            super("HTTP Durum Kodu: " + statusCode);
+            this.statusCode = statusCode;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        // Sunucunun Retry-After ile istediği bekleme; başlık yoksa 0
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
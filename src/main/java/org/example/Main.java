@@ -1,13 +1,24 @@
 package org.example;
 
-import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,279 +26,768 @@ public class Main {
 
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
 
+    private static final MetricsRegistry METRICS = MetricsRegistry.shared();
+    private static final MetricsRegistry.Histogram DETAIL_REQUEST_SECONDS = METRICS.histogram(
+            "scanner_dex_request_seconds", "DexScreener istek süresi", "endpoint", "tokens");
+    private static final MetricsRegistry.Histogram CYCLE_SECONDS = METRICS.histogram(
+            "scanner_cycle_seconds", "Bir boosts listesinin zenginleştirilme süresi");
+    private static final MetricsRegistry.Counter TOKENS_SCANNED = METRICS.counter(
+            "scanner_tokens_scanned_total", "Boosts listelerinde görülen token kayıtları");
+    private static final MetricsRegistry.Counter FEED_DUPLICATES = METRICS.counter(
+            "scanner_feed_duplicates_total", "Dedupe indeksinde elenen feed kayıtları");
+    private static final MetricsRegistry.Counter ADDRESSES_RECLAIMED = METRICS.counter(
+            "scanner_addresses_reclaimed_total", "Registry'de serbest bırakılıp yeniden kullanılan adres id'leri");
+    private static final MetricsRegistry.Counter CACHE_HITS = METRICS.counter(
+            "scanner_detail_cache_total", "Detay önbelleği sonuçları", "result", "hit");
+    private static final MetricsRegistry.Counter CACHE_MISSES = METRICS.counter(
+            "scanner_detail_cache_total", "Detay önbelleği sonuçları", "result", "miss");
+    private static final MetricsRegistry.Counter CACHE_UNCHANGED = METRICS.counter(
+            "scanner_detail_cache_total", "Detay önbelleği sonuçları", "result", "unchanged");
+    private static final MetricsRegistry.Counter DETAIL_FAILURES = METRICS.counter(
+            "scanner_detail_failures_total", "İsteği başarısız olduğu için detayı alınamayan tokenlar");
+    private static final MetricsRegistry.Histogram SCORE_SECONDS = METRICS.histogram(
+            "scanner_score_seconds", "GemScorer puanlama süresi");
+    private static final MetricsRegistry.Counter TOKENS_SCORED = METRICS.counter(
+            "scanner_tokens_scored_total", "Puanlanan tokenlar");
+    private static final MetricsRegistry.Counter GEMS_FOUND = METRICS.counter(
+            "scanner_gems_found_total", "Eşiği geçen tokenlar");
+    private static final MetricsRegistry.Counter GEMS_DROPPED = METRICS.counter(
+            "scanner_gems_dropped_total", "Bildirim aşaması kapandığı için bildirilemeyen tokenlar");
+    private static final MetricsRegistry.Counter CLAIMS_WON = METRICS.counter(
+            "scanner_cluster_claims_total", "Küme modunda bildirim hakkı denemeleri", "result", "won");
+    private static final MetricsRegistry.Counter CLAIMS_LOST = METRICS.counter(
+            "scanner_cluster_claims_total", "Küme modunda bildirim hakkı denemeleri", "result", "lost");
+
     // Konfigürasyon değerleri
     private static String BOT_TOKEN;
     private static long CHAT_ID;
+    private static String DEX_BASE_URL;
+    private static String TELEGRAM_BASE_URL;
     private static String API_URL;
+    private static String FEEDS;
+    private static long FEED_DEDUPE_WINDOW;
+    private static boolean CLUSTER_ENABLED;
+    private static String CLUSTER_INSTANCE_ID;
+    private static long CLUSTER_HEARTBEAT;
+    private static long CLUSTER_LEASE;
+    private static int CLUSTER_VIRTUAL_NODES;
     private static int GEM_SCORE_THRESHOLD;
     private static long NOTIFICATION_COOLDOWN_PERIOD;
     private static double MARKET_CAP_MULTIPLIER;
     private static long MAIN_LOOP_DELAY;
-    private static int MAX_RETRY_COUNT;
+    private static long POLL_MIN_INTERVAL;
+    private static long POLL_MAX_INTERVAL;
     private static long INITIAL_RETRY_DELAY;
-    private static long RETRY_DELAY_INCREMENT;
+    private static long POLL_MAX_BACKOFF;
     private static String DB_URL;
+    private static int ENRICH_MAX_CONCURRENCY;
+    private static boolean ENRICH_USE_VIRTUAL_THREADS;
+    private static int DETAIL_BATCH_SIZE;
+    private static boolean DETAIL_BEST_LIQUIDITY_PAIR;
+    private static long DETAIL_CACHE_TTL;
+    private static int METRICS_QUEUE_CAPACITY;
+    private static int METRICS_BATCH_SIZE;
+    private static long METRICS_FLUSH_INTERVAL;
+    private static boolean MAINTENANCE_ENABLED;
+    private static long MAINTENANCE_INTERVAL;
+    private static long MAINTENANCE_LATENESS;
+    private static long RAW_METRICS_RETENTION;
+    private static long MINUTE_METRICS_RETENTION;
+    private static long HOUR_METRICS_RETENTION;
+    private static long DAY_METRICS_RETENTION;
+    private static int VACUUM_PAGES;
+    private static boolean CONVERT_AUTO_VACUUM;
+    private static int STATS_WINDOW_SIZE;
+    private static long STATS_WINDOW_PERIOD;
+    private static int EXPECTED_TOKENS;
+    private static int MAX_TOKENS;
+    private static long TOKEN_IDLE_TIMEOUT;
+    private static long TOKEN_RECLAIM_INTERVAL;
+    private static int TELEGRAM_QUEUE_CAPACITY;
+    private static double TELEGRAM_GLOBAL_PER_SECOND;
+    private static double TELEGRAM_CHAT_PER_SECOND;
+    private static int TELEGRAM_CHAT_BURST;
+    private static int TELEGRAM_MAX_RETRIES;
+    private static int PIPELINE_QUEUE_CAPACITY;
+    private static String METRICS_HOST;
+    private static int METRICS_PORT;
+    private static String RECORD_FILE;
+    private static String REPLAY_FILE;
+    private static String REPLAY_WEIGHTS;
+    private static int REPLAY_THREADS;
+    private static int REPLAY_BATCH_SIZE;
+    private static String REPLAY_OUTPUT;
+    private static String METRICS_STORE;
+    private static String METRICS_STORE_DIR;
+    private static int MOMENTUM_MAX_TOKENS;
+    private static int MOMENTUM_DEPTH;
 
     private static DatabaseManager dbManager;
     private static TelegramNotifier telegramNotifier;
+    private static ExecutorService enrichExecutor;
+    private static Semaphore enrichPermits;
+    private static TokenDetailBatcher detailBatcher;
+    private static TokenMetricsStore metricsStore;
+    private static MetricsWriteBehind metricsWriter;
+    private static TokenStatistics statistics;
+    private static MomentumTracker momentumTracker;
+    private static AddressRegistry addressRegistry;
+    private static TokenInfoCache tokenInfoCache;
+    private static TokenDetailCache detailCache;
+    private static TelegramDeliveryQueue telegramQueue;
+    private static PipelineStage<List<BoostEntry>> enrichStage;
+    private static PipelineStage<TokenSnapshot> scoreStage;
+    private static PipelineStage<TokenSnapshot> notifyStage;
+    private static PipelineStage<TokenSnapshot> persistStage;
+    private static final List<AdaptivePoller<List<BoostEntry>>> feedPollers = new ArrayList<>();
+    private static FeedDedupeIndex feedIndex;
+    // Yalnızca zenginleştirme thread'inden erişilir
+    private static long nextReclaimAt;
+    private static ClusterCoordinator cluster;
+    private static MetricsMaintenance metricsMaintenance;
+    private static MetricsServer metricsServer;
+    private static ScanLog.Writer scanRecorder;
 
     public static void main(String[] args) {
         loadConfig();
+        if (!REPLAY_FILE.isEmpty()) {
+            runReplay();
+            return;
+        }
+        setupRecording();
         setupDatabase();
-        telegramNotifier = new TelegramNotifier(BOT_TOKEN);
-
-        try {
-            while (true) {
-                JSONArray jsonResponse = fetchTokensWithRetry();
-                if (jsonResponse == null) {
-                    LOGGER.warning("API'ye ulaşılamadı, bir sonraki döngüde tekrar denenecek...");
-                    Thread.sleep(MAIN_LOOP_DELAY);
-                    continue;
-                }
-
-                processTokens(jsonResponse);
-
-                // İstenirse buradaki bekleme süresi değiştirilebilir.
-                // Şu an 8 saat bekliyor.
-                Thread.sleep(MAIN_LOOP_DELAY);
-            }
-        } catch (InterruptedException e) {
-            LOGGER.log(Level.SEVERE, "Ana döngü kesintiye uğradı", e);
-            Thread.currentThread().interrupt();
+        setupCluster();
+        setupEnrichment();
+        setupTelegram();
+        setupPipeline();
+        setupPolling();
+        setupMetrics();
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::shutdown, "shutdown"));
+
+        // Her feed kendi thread'inde ve kendi aralığıyla çekilir; zenginleştirme, puanlama, bildirim ve kayıt
+        // kendi aşamalarında yürür. Böylece bir sonraki çekim öncekinin işlenmesiyle örtüşür.
+        // Çekim thread'leri daemon olmadığından ana thread burada bitebilir.
+        for (AdaptivePoller<?> poller : feedPollers) {
+            poller.start();
         }
     }
 
     private static void loadConfig() {
         BOT_TOKEN = "6482508265:AAEDUmyCM-ygU7BVO-txyykS7cKn5URspmY";
         CHAT_ID = 1692398446;
-        API_URL = "https://api.dexscreener.com/token-boosts/latest/v1";
+        // Yük testinde yerel simülatöre yönlendirmek için değiştirilebilir
+        DEX_BASE_URL = System.getProperty("dex.baseUrl", "https://api.dexscreener.com");
+        TELEGRAM_BASE_URL = System.getProperty("telegram.baseUrl", TelegramNotifier.DEFAULT_BASE_URL);
+        API_URL = DEX_BASE_URL + "/token-boosts/latest/v1";
+        // Taranan listeler: ad=url çiftleri, virgülle ayrılır. Hepsi chainId/tokenAddress içeren dizi döner.
+        FEEDS = System.getProperty("feeds", "boosts=" + API_URL
+                + ",boosts-top=" + DEX_BASE_URL + "/token-boosts/top/v1"
+                + ",profiles=" + DEX_BASE_URL + "/token-profiles/latest/v1");
+        // Aynı (chainId, tokenAddress) bu süre içinde yalnızca bir kez zenginleştirilir; boost'u değişirse beklemez
+        FEED_DEDUPE_WINDOW = Long.getLong("feeds.dedupeWindowMs", 60000L);
+
+        // Aynı DB_URL'i paylaşan birden fazla süreç adresleri bölüşür ve bildirimleri atomik olarak sahiplenir
+        CLUSTER_ENABLED = Boolean.getBoolean("cluster.enabled");
+        // Her süreç için benzersiz olmalı; verilmezse host adı ve pid kullanılır
+        CLUSTER_INSTANCE_ID = System.getProperty("cluster.instanceId", defaultInstanceId());
+        CLUSTER_HEARTBEAT = Long.getLong("cluster.heartbeatMs", 5000L);
+        // Bu süre içinde kalp atışı gelmeyen üyenin payı diğerlerine geçer
+        CLUSTER_LEASE = Long.getLong("cluster.leaseMs", 15000L);
+        // Üye başına halkadaki nokta sayısı; arttıkça dağılım dengelenir
+        CLUSTER_VIRTUAL_NODES = Integer.getInteger("cluster.virtualNodes", 128);
         GEM_SCORE_THRESHOLD = 5;
         NOTIFICATION_COOLDOWN_PERIOD = 24L * 60L * 60L * 1000L; // 24 saat
         MARKET_CAP_MULTIPLIER = 5.0;
 
-        // 10 saniyede bir istek atmak için 10.000 ms bekliyoruz
-        MAIN_LOOP_DELAY = 10000; // 10 saniye
+        // Başlangıçtaki çekim aralığı; liste değiştikçe kısalır, değişmedikçe uzar
+        MAIN_LOOP_DELAY = Long.getLong("poll.intervalMs", 10000); // 10 saniye
+        // Çekim aralığının alt ve üst sınırları
+        POLL_MIN_INTERVAL = Long.getLong("poll.minIntervalMs", 5000);
+        POLL_MAX_INTERVAL = Long.getLong("poll.maxIntervalMs", 60000);
+
+        // 429, 5xx ve bağlantı hatalarında ilk bekleme; her başarısız denemede ikiye katlanır
+        INITIAL_RETRY_DELAY = Long.getLong("poll.initialBackoffMs", 5000);
+        POLL_MAX_BACKOFF = Long.getLong("poll.maxBackoffMs", 300000);
+        DB_URL = System.getProperty("db.url", "jdbc:sqlite:C:\\Users\\musta\\.local\\share\\DBeaverData\\workspace6\\.metadata\\sample-database-sqlite-1\\Chinook.db");
+
+        // Detay isteklerinde aynı anda en fazla kaç HTTP çağrısı yapılacağı
+        ENRICH_MAX_CONCURRENCY = Integer.getInteger("enrich.maxConcurrency", 8);
+        // false verilirse sabit boyutlu platform thread havuzu kullanılır
+        ENRICH_USE_VIRTUAL_THREADS = Boolean.parseBoolean(System.getProperty("enrich.virtualThreads", "true"));
+        // Tek detay isteğinde virgülle birleştirilen adres sayısı (en fazla 30)
+        DETAIL_BATCH_SIZE = Integer.getInteger("enrich.batchSize", TokenDetailBatcher.MAX_ADDRESSES_PER_REQUEST);
+        // true verilirse ilk pair yerine likiditesi en yüksek pair kullanılır
+        DETAIL_BEST_LIQUIDITY_PAIR = Boolean.getBoolean("enrich.bestLiquidityPair");
+        // Boost kaydı değişmeyen bir token en fazla bu süre boyunca yeniden çekilmez
+        DETAIL_CACHE_TTL = Long.getLong("enrich.cacheTtlMs", 60000L);
+
+        // token_metrics yazımı: kuyruk kapasitesi, grup boyutu ve en uzun bekleme süresi
+        METRICS_QUEUE_CAPACITY = Integer.getInteger("metrics.queueCapacity", 10000);
+        METRICS_BATCH_SIZE = Integer.getInteger("metrics.batchSize", 500);
+        METRICS_FLUSH_INTERVAL = Long.getLong("metrics.flushIntervalMs", 2000L);
+
+        // Puanlamadaki ortalamalar için kayan pencere: son N kayıt ve son T saat (0 ise yalnızca N)
+        STATS_WINDOW_SIZE = Integer.getInteger("stats.windowSize", 5000);
+        STATS_WINDOW_PERIOD = Long.getLong("stats.windowHours", 6L) * 60L * 60L * 1000L;
+
+        // Beklenen token sayısı. Adres registry'si ve id ile indekslenen tablolar bu boyutta başlar,
+        // gerektiğinde büyür; token başına durum nesne olmadan primitive dizilerde tutulur.
+        EXPECTED_TOKENS = Integer.getInteger("tokens.expected", 200000);
+        // Bu süre boyunca feed'de görülmeyen ya da registry tokens.max'ı aştığında en uzun süredir görülmeyen
+        // tokenların id'si ve id'ye bağlı önbellek/momentum durumu tokens.reclaimIntervalMs'de bir serbest bırakılır.
+        // Bekleme süresindeki ya da gönderimi süren bildirimler ve detay TTL'i içinde görülenler bırakılmaz.
+        MAX_TOKENS = Integer.getInteger("tokens.max", 500000);
+        TOKEN_IDLE_TIMEOUT = Long.getLong("tokens.idleTimeoutMs", 60L * 60L * 1000L);
+        TOKEN_RECLAIM_INTERVAL = Long.getLong("tokens.reclaimIntervalMs", 60000L);
+
+        // Telegram limitleri: bot başına saniyede ~30 mesaj, aynı sohbete saniyede ~1 mesaj
+        TELEGRAM_QUEUE_CAPACITY = Integer.getInteger("telegram.queueCapacity", 1000);
+        TELEGRAM_GLOBAL_PER_SECOND = Double.parseDouble(System.getProperty("telegram.globalPerSecond", "30"));
+        TELEGRAM_CHAT_PER_SECOND = Double.parseDouble(System.getProperty("telegram.chatPerSecond", "1"));
+        TELEGRAM_CHAT_BURST = Integer.getInteger("telegram.chatBurst", 3);
+        TELEGRAM_MAX_RETRIES = Integer.getInteger("telegram.maxRetries", 5);
+
+        // Aşamalar arası kuyruk boyutu (token sayısı); boosts aşamasında bekleyen liste sayısı sabit 2
+        PIPELINE_QUEUE_CAPACITY = Integer.getInteger("pipeline.queueCapacity", 1000);
+
+        // Prometheus /metrics uç noktası; port 0 ya da negatifse sunucu açılmaz
+        METRICS_HOST = System.getProperty("metrics.host", "127.0.0.1");
+        METRICS_PORT = Integer.getInteger("metrics.port", 9404);
+
+        // Verilirse ham boosts ve detay cevapları bu dosyaya gzip olarak eklenir
+        RECORD_FILE = System.getProperty("record.file", "");
+        // Verilirse canlı tarama yerine bu kayıt tekrar oynatılır (ağ, veritabanı ve Telegram kullanılmaz)
+        REPLAY_FILE = System.getProperty("replay.file", "");
+        // Her satırı bir ağırlık ızgarası olan dosya; örn. "lowMarketCap=1:3:0.5 threshold=4:6:1"
+        REPLAY_WEIGHTS = System.getProperty("replay.weights", "");
+        REPLAY_THREADS = Integer.getInteger("replay.threads", Runtime.getRuntime().availableProcessors());
+        // Yapılandırmalara paralel verilmeden önce biriktirilen gözlem sayısı
+        REPLAY_BATCH_SIZE = Integer.getInteger("replay.batchSize", 4096);
+        REPLAY_OUTPUT = System.getProperty("replay.output", "replay-results.csv");
+
+        // token_metrics anlık görüntülerinin deposu: "sqlite" (token_metrics tablosu) ya da "columnar"
+        // (gün bazında bölümlenmiş, belleğe eşlenen sütun dosyaları). token_info her durumda SQLite'ta kalır.
+        METRICS_STORE = System.getProperty("metrics.store", "sqlite");
+        METRICS_STORE_DIR = System.getProperty("metrics.storeDir", "token-metrics");
+
+        // Momentum için izlenen en fazla token ve token başına tutulan son anlık görüntü sayısı.
+        // Varsayılanlarla halka tamponları yaklaşık 29 MB yer kaplar.
+        MOMENTUM_MAX_TOKENS = Integer.getInteger("momentum.maxTokens", 131072);
+        MOMENTUM_DEPTH = Integer.getInteger("momentum.depth", 8);
+
+        // token_metrics bakımı: özetleme, saklama süresi ve incremental vacuum (yalnızca SQLite deposunda)
+        MAINTENANCE_ENABLED = Boolean.parseBoolean(System.getProperty("maintenance.enabled", "true"));
+        MAINTENANCE_INTERVAL = Long.getLong("maintenance.intervalMs", 60000L);
+        // Yazım kuyruğundan geç gelen satırlar kaçmasın diye son bu kadar süre özetlenmez
+        MAINTENANCE_LATENESS = Long.getLong("maintenance.latenessMs", 120000L);
+        // Saklama süreleri; 0 verilirse o seviye hiç silinmez
+        RAW_METRICS_RETENTION = Long.getLong("maintenance.rawRetentionMs", 2L * 24 * 60 * 60 * 1000); // 2 gün
+        MINUTE_METRICS_RETENTION = Long.getLong("maintenance.minuteRetentionMs", 7L * 24 * 60 * 60 * 1000); // 7 gün
+        HOUR_METRICS_RETENTION = Long.getLong("maintenance.hourRetentionMs", 90L * 24 * 60 * 60 * 1000); // 90 gün
+        DAY_METRICS_RETENTION = Long.getLong("maintenance.dayRetentionMs", 0L);
+        // Her bakımda dosyadan geri verilecek en fazla boş sayfa
+        VACUUM_PAGES = Integer.getInteger("maintenance.vacuumPages", 1000);
+        // Eski, incremental kipte olmayan bir veritabanını tek seferlik VACUUM ile çevirir (yazımları bir süre bekletir)
+        CONVERT_AUTO_VACUUM = Boolean.getBoolean("maintenance.convertAutoVacuum");
+    }
 
-        MAX_RETRY_COUNT = 5;
-        INITIAL_RETRY_DELAY = 5000;
-        RETRY_DELAY_INCREMENT = 5000;
-        DB_URL = "jdbc:sqlite:C:\\Users\\musta\\.local\\share\\DBeaverData\\workspace6\\.metadata\\sample-database-sqlite-1\\Chinook.db";
+    private static void setupRecording() {
+        if (RECORD_FILE.isEmpty()) {
+            return;
+        }
+        try {
+            scanRecorder = new ScanLog.Writer(Path.of(RECORD_FILE));
+            LOGGER.info("Ham cevaplar kaydediliyor: " + RECORD_FILE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Tarama kaydı açılamadı, kayıt yapılmayacak: " + e.getMessage(), e);
+        }
+    }
+
+    private static void runReplay() {
+        List<GemScorer.Weights> configs = new ArrayList<>();
+        try {
+            if (REPLAY_WEIGHTS.isEmpty()) {
+                configs.add(GemScorer.Weights.DEFAULT.copy());
+                configs.get(0).threshold = GEM_SCORE_THRESHOLD;
+            } else {
+                for (String line : Files.readAllLines(Path.of(REPLAY_WEIGHTS), StandardCharsets.UTF_8)) {
+                    if (!line.isBlank() && !line.startsWith("#")) {
+                        configs.addAll(GemScorer.Weights.parseGrid(line));
+                    }
+                }
+            }
+            LOGGER.info(configs.size() + " yapılandırma ile tekrar oynatılıyor: " + REPLAY_FILE);
+
+            List<ReplayEngine.ConfigRun> results;
+            try (ReplayEngine engine = new ReplayEngine(configs, REPLAY_THREADS, REPLAY_BATCH_SIZE,
+                    STATS_WINDOW_SIZE, STATS_WINDOW_PERIOD, NOTIFICATION_COOLDOWN_PERIOD, MARKET_CAP_MULTIPLIER,
+                    DETAIL_CACHE_TTL, EXPECTED_TOKENS, DETAIL_BEST_LIQUIDITY_PAIR,
+                    new MomentumTracker(MOMENTUM_MAX_TOKENS, MOMENTUM_DEPTH))) {
+                results = engine.run(Path.of(REPLAY_FILE));
+            }
+            ReplayEngine.writeResults(Path.of(REPLAY_OUTPUT), results);
+            LOGGER.info("Sonuçlar yazıldı: " + REPLAY_OUTPUT);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Tekrar oynatma başarısız: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 
     private static void setupDatabase() {
         dbManager = new DatabaseManager(DB_URL);
         dbManager.initializeDatabase();
+        metricsStore = openMetricsStore();
+        metricsWriter = new MetricsWriteBehind(metricsStore, METRICS_QUEUE_CAPACITY, METRICS_BATCH_SIZE, METRICS_FLUSH_INTERVAL);
+        metricsWriter.start();
+        statistics = new TokenStatistics(STATS_WINDOW_SIZE, STATS_WINDOW_PERIOD);
+        metricsStore.loadStatistics(statistics);
+        if (MAINTENANCE_ENABLED && metricsStore == dbManager) {
+            metricsMaintenance = new MetricsMaintenance(DB_URL, MAINTENANCE_INTERVAL, MAINTENANCE_LATENESS,
+                    RAW_METRICS_RETENTION, MINUTE_METRICS_RETENTION, HOUR_METRICS_RETENTION, DAY_METRICS_RETENTION,
+                    VACUUM_PAGES, CONVERT_AUTO_VACUUM);
+            metricsMaintenance.start();
+        }
+        addressRegistry = new AddressRegistry(EXPECTED_TOKENS);
+        momentumTracker = new MomentumTracker(MOMENTUM_MAX_TOKENS, MOMENTUM_DEPTH);
+        tokenInfoCache = new TokenInfoCache(dbManager, addressRegistry, NOTIFICATION_COOLDOWN_PERIOD, MARKET_CAP_MULTIPLIER,
+                EXPECTED_TOKENS);
+        tokenInfoCache.load(System.currentTimeMillis());
     }
 
-    private static JSONArray fetchTokensWithRetry() {
-        JSONArray jsonResponse = null;
-        int attempt = 0;
-        long currentDelay = INITIAL_RETRY_DELAY;
-
-        while (attempt < MAX_RETRY_COUNT && jsonResponse == null) {
-            attempt++;
+    private static TokenMetricsStore openMetricsStore() {
+        if ("columnar".equalsIgnoreCase(METRICS_STORE)) {
             try {
-                jsonResponse = fetchLatestTokens(API_URL);
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "API isteği başarısız oldu. Deneme: " + attempt + " Hata: " + e.getMessage(), e);
-                if (attempt < MAX_RETRY_COUNT) {
-                    LOGGER.info("Yeniden denemeden önce " + (currentDelay / 1000) + " saniye bekleniyor...");
-                    try {
-                        Thread.sleep(currentDelay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return null;
-                    }
-                    currentDelay += RETRY_DELAY_INCREMENT;
-                }
+                return new ColumnarMetricsStore(Path.of(METRICS_STORE_DIR));
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Sütun deposu açılamadı, SQLite kullanılacak: " + e.getMessage(), e);
             }
         }
-        return jsonResponse;
+        return dbManager;
     }
 
-    private static void processTokens(JSONArray jsonResponse) {
-        // Ortalamaları al (örnek olarak son 100 token)
-        DatabaseManager.TokenAverages averages = dbManager.getAverages();
-
-        Set<String> processedTokens = new HashSet<>();
-        for (int i = 0; i < jsonResponse.length(); i++) {
-            JSONObject token = jsonResponse.getJSONObject(i);
-
-            String tokenAddress = token.optString("tokenAddress", "Bilinmiyor");
-            if (processedTokens.contains(tokenAddress)) {
-                continue;
-            }
+    private static void setupPipeline() {
+        enrichStage = new PipelineStage<>("enrich", 2, 1, Main::enrichBoosts);
+        scoreStage = new PipelineStage<>("score", PIPELINE_QUEUE_CAPACITY, 1, Main::scoreToken);
+        notifyStage = new PipelineStage<>("notify", PIPELINE_QUEUE_CAPACITY, 1, Main::notifyToken);
+        persistStage = new PipelineStage<>("persist", PIPELINE_QUEUE_CAPACITY, 1, Main::persistToken);
+        persistStage.start();
+        notifyStage.start();
+        scoreStage.start();
+        enrichStage.start();
+    }
 
-            JSONObject tokenDetails = fetchTokenDetails(tokenAddress);
-            if (tokenDetails == null) {
-                LOGGER.info("Token detay bilgisi alınamadı: " + tokenAddress);
-                continue;
-            }
+    private static void setupMetrics() {
+        METRICS.gauge("scanner_pipeline_queue_size", "Aşama kuyruğunda bekleyen işler", enrichStage::pending, "stage", "enrich");
+        METRICS.gauge("scanner_pipeline_queue_size", "Aşama kuyruğunda bekleyen işler", scoreStage::pending, "stage", "score");
+        METRICS.gauge("scanner_pipeline_queue_size", "Aşama kuyruğunda bekleyen işler", notifyStage::pending, "stage", "notify");
+        METRICS.gauge("scanner_pipeline_queue_size", "Aşama kuyruğunda bekleyen işler", persistStage::pending, "stage", "persist");
+        METRICS.gauge("scanner_telegram_queue_size", "Gönderilmeyi bekleyen Telegram mesajları", telegramQueue::pending);
+        METRICS.gauge("scanner_token_info_cache_size", "Bellekteki bildirim kayıtları", tokenInfoCache::size);
+        METRICS.gauge("scanner_detail_cache_size", "Bellekteki token detayları", detailCache::size);
+        METRICS.gauge("scanner_momentum_tokens", "Momentum için izlenen tokenlar", momentumTracker::size);
+        for (AdaptivePoller<?> poller : feedPollers) {
+            METRICS.gauge("scanner_poll_interval_seconds", "Feed çekim aralığı",
+                    () -> poller.intervalMs() / 1000.0, "feed", poller.feed());
+        }
+        if (cluster != null) {
+            METRICS.gauge("scanner_cluster_members", "Kirası süren küme üyeleri", cluster::memberCount);
+        }
+        METRICS.gauge("scanner_feed_index_size", "Dedupe indeksindeki (chainId, tokenAddress) çiftleri", feedIndex::size);
+        METRICS.gauge("scanner_known_addresses", "Registry'deki token adresleri", addressRegistry::size);
+        METRICS.gauge("scanner_stats_window_size", "İstatistik penceresindeki kayıtlar",
+                () -> statistics.snapshot(System.currentTimeMillis()).windowCount);
 
-            TokenData data = parseTokenDetails(tokenDetails);
-            if (data == null) {
-                continue;
-            }
+        if (METRICS_PORT <= 0) {
+            return;
+        }
+        try {
+            metricsServer = new MetricsServer(METRICS_HOST, METRICS_PORT, METRICS);
+            metricsServer.start();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Metrik sunucusu başlatılamadı: " + e.getMessage(), e);
+        }
+    }
 
-            int gemScore = GemScorer.calculateGemScore(data, averages.avgMarketCap, averages.avgLiquidity, averages.avgVolume);
-            boolean isGem = gemScore >= GEM_SCORE_THRESHOLD;
+    // Sıra önemli: çekim durur, aşamalar baştan sona boşaltılır, kuyruktaki bildirimler gönderilir,
+    // bekleyen yazımlar biter, en son bağlantı kapanır
+    private static void shutdown() {
+        for (AdaptivePoller<?> poller : feedPollers) {
+            poller.close();
+        }
+        enrichStage.close();
+        enrichExecutor.shutdownNow();
+        if (scanRecorder != null) {
+            scanRecorder.close();
+        }
+        scoreStage.close();
+        notifyStage.close();
+        persistStage.close();
+        telegramQueue.close();
+        metricsWriter.close();
+        if (metricsMaintenance != null) {
+            metricsMaintenance.close();
+        }
+        if (metricsStore != dbManager) {
+            metricsStore.close();
+        }
+        tokenInfoCache.close();
+        if (cluster != null) {
+            cluster.close();
+        }
+        dbManager.close();
+        if (metricsServer != null) {
+            metricsServer.close();
+        }
+    }
 
-            if (isGem) {
-                handleGemToken(tokenAddress, data, gemScore);
-            }
+    private static void setupTelegram() {
+        telegramNotifier = new TelegramNotifier(BOT_TOKEN, TELEGRAM_BASE_URL);
+        telegramQueue = new TelegramDeliveryQueue(telegramNotifier, TELEGRAM_QUEUE_CAPACITY,
+                TELEGRAM_GLOBAL_PER_SECOND, (int) Math.ceil(TELEGRAM_GLOBAL_PER_SECOND),
+                TELEGRAM_CHAT_PER_SECOND, TELEGRAM_CHAT_BURST, TELEGRAM_MAX_RETRIES, 1000L, 60000L);
+        telegramQueue.start();
+    }
 
-            processedTokens.add(tokenAddress);
+    private static void setupEnrichment() {
+        enrichExecutor = ENRICH_USE_VIRTUAL_THREADS
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(ENRICH_MAX_CONCURRENCY);
+        enrichPermits = new Semaphore(ENRICH_MAX_CONCURRENCY);
+        detailCache = new TokenDetailCache(DETAIL_CACHE_TTL, EXPECTED_TOKENS);
+        detailBatcher = new TokenDetailBatcher(Main::fetchTokenDetails, enrichExecutor, enrichPermits, DETAIL_BATCH_SIZE);
+    }
 
-            // İstatistikler için token_metrics tablonuza veri ekleyerek zamanla ortalama hesaplarını iyileştirebilirsiniz.
-            dbManager.insertTokenMetrics(tokenAddress, data.marketCap, data.liquidityUsd, data.volume24h, System.currentTimeMillis());
+    private static void setupCluster() {
+        if (!CLUSTER_ENABLED) {
+            return;
         }
+        cluster = new ClusterCoordinator(dbManager, CLUSTER_INSTANCE_ID, CLUSTER_HEARTBEAT, CLUSTER_LEASE,
+                CLUSTER_VIRTUAL_NODES);
+        cluster.start();
+        LOGGER.info("Küme modu açık, örnek: " + CLUSTER_INSTANCE_ID + ", üye sayısı: " + cluster.memberCount());
     }
 
-    private static void handleGemToken(String tokenAddress, TokenData data, int gemScore) {
-        long currentTimeMillis = System.currentTimeMillis();
-        DatabaseManager.TokenInfo tokenInfo = dbManager.getTokenInfo(tokenAddress);
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = java.net.InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
 
-        boolean shouldNotify = false;
-        if (tokenInfo == null) {
-            // İlk kez gem
-            shouldNotify = true;
-        } else {
-            boolean cooldownExpired = (currentTimeMillis - tokenInfo.getLastNotifiedTime()) >= NOTIFICATION_COOLDOWN_PERIOD;
-            boolean bigMarketCapJump = (tokenInfo.getLastNotifiedMarketCap() > 0)
-                    && (data.marketCap > tokenInfo.getLastNotifiedMarketCap() * MARKET_CAP_MULTIPLIER);
-            if (cooldownExpired || bigMarketCapJump) {
-                shouldNotify = true;
+    private static void setupPolling() {
+        feedIndex = new FeedDedupeIndex(FEED_DEDUPE_WINDOW, EXPECTED_TOKENS);
+        for (String feed : FEEDS.split(",")) {
+            String[] parts = feed.trim().split("=", 2);
+            if (parts.length != 2) {
+                LOGGER.warning("Geçersiz feed tanımı atlandı: " + feed);
+                continue;
             }
+            feedPollers.add(new AdaptivePoller<>(parts[0], parts[1], MAIN_LOOP_DELAY, POLL_MIN_INTERVAL, POLL_MAX_INTERVAL,
+                    INITIAL_RETRY_DELAY, POLL_MAX_BACKOFF, Main::decodeFeed, Main::onFeedPolled));
         }
+        LOGGER.info("Taranan feed sayısı: " + feedPollers.size());
+    }
 
-        if (shouldNotify) {
-            String gemMessage = String.format(
-                    "Gem Token Adayı!\n" +
-                            "DEX ID: %s\n" +
-                            "Token Symbol: %s\n" +
-                            "Token Name: %s\n" +
-                            "Fiyat (USD): %s\n" +
-                            "Fiyat Değişimi (24h): %.2f\n" +
-                            "Likidite (USD): %.2f\n" +
-                            "Hacim (24 Saat): %.2f\n" +
-                            "Market Cap: %d\n" +
-                            "İşlem Sayısı (24 Saat): %d\n" +
-                            "Puan: %d/%d\n" +
-                            "URL: %s\n",
-                    data.dexId, data.baseTokenSymbol, data.baseTokenName, data.priceUsd, data.priceChange24h,
-                    data.liquidityUsd, data.volume24h, data.marketCap, data.txns24h, gemScore, GEM_SCORE_THRESHOLD, data.pairUrl
-            );
-            telegramNotifier.sendMessage(CHAT_ID, gemMessage);
+    // Yalnızca öncekinden farklı feed cevapları çözülür ve kaydedilir
+    private static List<BoostEntry> decodeFeed(byte[] body) throws IOException {
+        if (scanRecorder != null) {
+            scanRecorder.recordBoosts(System.currentTimeMillis(), body);
+        }
+        return DexScreenerDecoder.decodeBoosts(new ByteArrayInputStream(body));
+    }
 
-            if (tokenInfo == null) {
-                dbManager.insertTokenInfo(tokenAddress, currentTimeMillis, data.marketCap);
-            } else {
-                dbManager.updateTokenInfo(tokenAddress, currentTimeMillis, data.marketCap);
-            }
+    // Her çekimde, liste değişmemiş olsa da çağrılır. Feed'ler ortak dedupe indeksinde birleşir;
+    // zenginleştirmeye yalnızca yakın zamanda geçmemiş ya da detayı alınamamış tokenlar gider, böylece
+    // değişmeyen bir listedeki tokenlar da pencere dolunca yenilenir.
+    // Zenginleştirme kuyruğu kapandıysa false döner ve çekim durur.
+    private static boolean onFeedPolled(List<BoostEntry> entries) throws InterruptedException {
+        long now = System.currentTimeMillis();
+        if (cluster != null) {
+            // Çözülen liste çekimler arasında yeniden kullanıldığı için kopyası süzülür; halka değişmiş olabilir
+            entries = new ArrayList<>(entries);
+            entries.removeIf(entry -> !cluster.owns(entry.tokenAddress));
         }
+        List<BoostEntry> admitted = feedIndex.admit(entries, now);
+        FEED_DUPLICATES.add(entries.size() - admitted.size());
+        return admitted.isEmpty() || enrichStage.put(admitted);
     }
 
-    private static JSONArray fetchLatestTokens(String apiUrl) throws Exception {
-        HttpURLConnection conn = (HttpURLConnection) new URL(apiUrl).openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(10000);
-        conn.setReadTimeout(15000);
-        conn.connect();
+    // Zenginleştirme aşaması: bir boosts listesindeki tokenların detaylarını çeker
+    private static void enrichBoosts(List<BoostEntry> jsonResponse) throws InterruptedException {
+        long cycleStart = System.nanoTime();
+        TOKENS_SCANNED.add(jsonResponse.size());
+        tokenInfoCache.evictExpired(System.currentTimeMillis());
+        reclaimIdleTokens(System.currentTimeMillis());
+
+        Map<String, TokenData> enrichedTokens = enrichTokens(jsonResponse);
+        CYCLE_SECONDS.observeSince(cycleStart);
+        long observedAt = System.currentTimeMillis();
+        for (Map.Entry<String, TokenData> entry : enrichedTokens.entrySet()) {
+            int tokenId = addressRegistry.intern(entry.getKey());
+            if (!scoreStage.put(new TokenSnapshot(tokenId, entry.getKey(), entry.getValue(), observedAt))) {
+                return;
+            }
+        }
+    }
 
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new Exception("HTTP Durum Kodu: " + responseCode);
+    // Uzun süredir görülmeyen adreslerin id'lerini serbest bırakır. Adresler yalnızca zenginleştirme thread'inde
+    // intern edildiği için bu thread'de çalışır; id'yi tutan durum önce temizlenir, sonra id bırakılır.
+    // Detay TTL'i içinde görülen bir id, aşamalar arasında taşınan bir snapshot'ta olabileceği için bırakılmaz.
+    private static void reclaimIdleTokens(long now) {
+        if (now < nextReclaimAt) {
+            return;
         }
+        nextReclaimAt = now + TOKEN_RECLAIM_INTERVAL;
+        long latestCutoff = now - DETAIL_CACHE_TTL;
+        int[] candidates = addressRegistry.idleIds(now - TOKEN_IDLE_TIMEOUT, latestCutoff, MAX_TOKENS);
+        int count = 0;
+        for (int id : candidates) {
+            if (tokenInfoCache.holds(id)) {
+                continue;
+            }
+            detailCache.remove(id);
+            momentumTracker.remove(id);
+            candidates[count++] = id;
+        }
+        int released = addressRegistry.release(Arrays.copyOf(candidates, count), latestCutoff);
+        ADDRESSES_RECLAIMED.add(released);
+        if (released > 0) {
+            LOGGER.fine("Registry'de " + released + " adres serbest bırakıldı, kalan: " + addressRegistry.size());
+        }
+    }
 
-        try (Scanner scanner = new Scanner(conn.getInputStream())) {
-            StringBuilder inline = new StringBuilder();
-            while (scanner.hasNext()) {
-                inline.append(scanner.nextLine());
+    // Puanlama aşaması: istatistikler tablo taraması yerine bellekteki motordan okunur
+    private static void scoreToken(TokenSnapshot snapshot) throws InterruptedException {
+        long start = System.nanoTime();
+        TokenStatistics.Snapshot stats = statistics.snapshot(snapshot.observedAt);
+        momentumTracker.update(snapshot.tokenId, snapshot.observedAt, snapshot.data);
+        MomentumTracker.Features momentum = momentumTracker.features(snapshot.tokenId);
+        snapshot.gemScore = GemScorer.calculateGemScore(snapshot.data, stats, momentum, GemScorer.Weights.DEFAULT,
+                System.currentTimeMillis());
+        boolean isGem = snapshot.gemScore >= GEM_SCORE_THRESHOLD;
+        SCORE_SECONDS.observeSince(start);
+        TOKENS_SCORED.inc();
+
+        if (isGem) {
+            GEMS_FOUND.inc();
+            // Bildirim aşaması kapandıysa gem sessizce kaybolmaz; sayılır ve loglanır, kayıt yine yapılır
+            if (!notifyStage.put(snapshot)) {
+                GEMS_DROPPED.inc();
+                LOGGER.warning("Bildirim aşaması kapalı, gem bildirilemedi: " + snapshot.tokenAddress
+                        + " (puan " + snapshot.gemScore + ")");
             }
-            return new JSONArray(inline.toString());
         }
+        persistStage.put(snapshot);
     }
 
-    private static JSONObject fetchTokenDetails(String tokenAddress) {
-        try {
-            String detailUrl = "https://api.dexscreener.com/latest/dex/tokens/" + tokenAddress;
-            HttpURLConnection conn = (HttpURLConnection) new URL(detailUrl).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(15000);
-            conn.connect();
-
-            int responseCode = conn.getResponseCode();
-            if (responseCode != 200) {
-                LOGGER.warning("Detay API isteği başarısız oldu. HTTP Durum Kodu: " + responseCode);
-                return null;
+    private static void notifyToken(TokenSnapshot snapshot) {
+        handleGemToken(snapshot.tokenId, snapshot.data, snapshot.gemScore);
+    }
+
+    // Kayıt aşaması: istatistik motorunu günceller ve token_metrics yazım kuyruğuna ekler
+    private static void persistToken(TokenSnapshot snapshot) throws InterruptedException {
+        TokenData data = snapshot.data;
+        statistics.add(data.marketCap, data.liquidityUsd, data.volume24h, snapshot.observedAt);
+        metricsWriter.submit(new DatabaseManager.TokenMetric(snapshot.tokenAddress, data.marketCap, data.liquidityUsd,
+                data.volume24h, snapshot.observedAt, data.txns24h, data.priceChange24h));
+    }
+
+    // Detay isteklerini adres grupları halinde paralel olarak atar, sonuçları puanlamadan önce toplar.
+    // Döngü süresi toplam istek süresine değil en yavaş isteğe bağlı olur.
+    // Önbellekte taze olan tokenlar çekilmez; verisi değişmemiş tokenlar sonuçlara eklenmez.
+    private static Map<String, TokenData> enrichTokens(List<BoostEntry> jsonResponse) {
+        long now = System.currentTimeMillis();
+        // Aynı adres listede (farklı zincir ya da feed kaydıyla) birden çok kez geçebilir. Tazelik kontrolünden
+        // önce adres başına tek kayda indirgenir; karşılaştırma en büyük amount/totalAmount ile yapılır ki
+        // farklı miktarlı kopyalar önbelleği her döngüde birbirinin yerine yazıp tokenı yeniden çektirmesin.
+        Map<String, BoostEntry> boosts = new LinkedHashMap<>();
+        for (BoostEntry token : jsonResponse) {
+            BoostEntry seen = boosts.get(token.tokenAddress);
+            if (seen == null) {
+                boosts.put(token.tokenAddress, token);
+            } else if (token.amount > seen.amount || token.totalAmount > seen.totalAmount) {
+                boosts.put(token.tokenAddress, new BoostEntry(seen.chainId, seen.tokenAddress,
+                        Math.max(seen.amount, token.amount), Math.max(seen.totalAmount, token.totalAmount)));
             }
+        }
+        Map<String, BoostEntry> processedTokens = new LinkedHashMap<>();
+        for (BoostEntry token : boosts.values()) {
+            if (detailCache.isFresh(addressRegistry.intern(token.tokenAddress), token, now)) {
+                CACHE_HITS.inc();
+            } else {
+                CACHE_MISSES.inc();
+                processedTokens.put(token.tokenAddress, token);
+            }
+        }
+
+        Map<String, CompletableFuture<TokenData>> pending = detailBatcher.request(processedTokens.keySet());
 
-            try (Scanner scanner = new Scanner(conn.getInputStream())) {
-                StringBuilder inline = new StringBuilder();
-                while (scanner.hasNext()) {
-                    inline.append(scanner.nextLine());
+        Map<String, TokenData> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<TokenData>> entry : pending.entrySet()) {
+            try {
+                TokenData data = entry.getValue().get();
+                if (data == null) {
+                    LOGGER.info("Token detay bilgisi alınamadı: " + entry.getKey());
+                    continue;
                 }
-                JSONObject jsonResponse = new JSONObject(inline.toString());
-                if (jsonResponse.has("pairs")) {
-                    JSONArray pairs = jsonResponse.getJSONArray("pairs");
-                    if (pairs.length() > 0) {
-                        return pairs.getJSONObject(0);
+                int tokenId = addressRegistry.intern(entry.getKey());
+                if (detailCache.update(tokenId, processedTokens.get(entry.getKey()), data, now)) {
+                    results.put(entry.getKey(), data);
+                } else {
+                    CACHE_UNCHANGED.inc();
+                }
+            } catch (ExecutionException e) {
+                // İstek hatası "pair yok" değildir: önbelleğe yazılmaz ve dedupe indeksinden düşülür ki
+                // liste değişmese de bir sonraki çekimde yeniden çekilsin.
+                // Hata toplu istek başına bir kez TokenDetailBatcher'da loglanır.
+                DETAIL_FAILURES.inc();
+                for (BoostEntry token : jsonResponse) {
+                    if (token.tokenAddress.equals(entry.getKey())) {
+                        feedIndex.forget(token);
                     }
                 }
+                LOGGER.fine("Token detayı alınamadı: " + entry.getKey() + " (" + e.getCause() + ")");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "fetchTokenDetails hata: " + e.getMessage(), e);
         }
-        return null;
+        return results;
     }
 
-    private static TokenData parseTokenDetails(JSONObject tokenDetails) {
-        String dexId = tokenDetails.optString("dexId", "Bilinmiyor");
-        String priceUsd = tokenDetails.optString("priceUsd", "0.0");
-
-        double priceChange24h = 0.0;
-        if (tokenDetails.optJSONObject("priceChange") != null) {
-            priceChange24h = tokenDetails.optJSONObject("priceChange").optDouble("h24", 0.0);
+    private static void handleGemToken(int tokenId, TokenData data, int gemScore) {
+        // Bekleme süresi ve market cap sıçraması kuralı bellekteki token_info kopyasından okunur.
+        // Bu token için gönderimi süren bir bildirim varsa tekrar kuyruğa alınmaz.
+        long now = System.currentTimeMillis();
+        if (!tokenInfoCache.shouldNotify(tokenId, now, data.marketCap)
+                || !tokenInfoCache.markPending(tokenId)) {
+            return;
         }
+        // Küme modunda bellekteki karar yalnızca ön filtredir; hak veritabanında tek ifadeyle alınır,
+        // böylece aynı tokenı aynı anda işleyen iki süreçten yalnızca biri gönderimi başlatır. Gönderimin
+        // kendisi tam bir kez değildir (bkz. ClusterCoordinator): çökmede kaçabilir, tekrar denemede yinelenebilir.
+        if (cluster != null && !claimNotification(tokenId, now, data.marketCap)) {
+            tokenInfoCache.clearPending(tokenId);
+            return;
+        }
+        // token_info yalnızca mesaj gerçekten gönderildiyse güncellenir
+        telegramQueue.enqueue(CHAT_ID, formatGemMessage(data, gemScore)).whenComplete((sent, error) -> {
+            try {
+                if (Boolean.TRUE.equals(sent) && cluster != null) {
+                    tokenInfoCache.confirmClaim(tokenId, now, System.currentTimeMillis(), data.marketCap);
+                } else if (Boolean.TRUE.equals(sent)) {
+                    tokenInfoCache.recordNotification(tokenId, System.currentTimeMillis(), data.marketCap);
+                } else if (cluster != null) {
+                    tokenInfoCache.release(tokenId, now);
+                }
+            } finally {
+                tokenInfoCache.clearPending(tokenId);
+            }
+        });
+    }
 
-        double liquidityUsd = 0.0;
-        if (tokenDetails.optJSONObject("liquidity") != null) {
-            liquidityUsd = tokenDetails.optJSONObject("liquidity").optDouble("usd", 0.0);
+    private static boolean claimNotification(int tokenId, long now, long marketCap) {
+        if (tokenInfoCache.claim(tokenId, now, marketCap)) {
+            CLAIMS_WON.inc();
+            return true;
         }
+        CLAIMS_LOST.inc();
+        return false;
+    }
+
+    static String formatGemMessage(TokenData data, int gemScore) {
+        return formatGemMessage(data, gemScore, GEM_SCORE_THRESHOLD);
+    }
 
-        double volume24h = 0.0;
-        if (tokenDetails.optJSONObject("volume") != null) {
-            volume24h = tokenDetails.optJSONObject("volume").optDouble("h24", 0.0);
+    static String formatGemMessage(TokenData data, int gemScore, int threshold) {
+        return String.format(
+                "Gem Token Adayı!\n" +
+                        "DEX ID: %s\n" +
+                        "Token Symbol: %s\n" +
+                        "Token Name: %s\n" +
+                        "Fiyat (USD): %s\n" +
+                        "Fiyat Değişimi (24h): %.2f\n" +
+                        "Likidite (USD): %.2f\n" +
+                        "Hacim (24 Saat): %.2f\n" +
+                        "Market Cap: %d\n" +
+                        "İşlem Sayısı (24 Saat): %d\n" +
+                        "Puan: %d/%d\n" +
+                        "URL: %s\n",
+                data.dexId, data.baseTokenSymbol, data.baseTokenName, formatPrice(data.priceUsd), data.priceChange24h,
+                data.liquidityUsd, data.volume24h, data.marketCap, data.txns24h, gemScore, threshold, data.pairUrl
+        );
+    }
+
+    // Küçük fiyatlar bilimsel gösterime düşmeden, API'deki gibi düz yazılır
+    private static String formatPrice(double priceUsd) {
+        return BigDecimal.valueOf(priceUsd).toPlainString();
+    }
+
+    // Birden fazla adresi tek istekte sorgular, cevaptaki pair'leri baseToken.address'e göre ayırır.
+    // Varsayılan olarak her adres için ilk gelen pair tutulur (tekli istekteki pairs[0] davranışı).
+    private static Map<String, TokenData> fetchTokenDetails(List<String> tokenAddresses) throws Exception {
+        String joined = String.join(",", tokenAddresses);
+        String detailUrl = DEX_BASE_URL + "/latest/dex/tokens/" + joined;
+
+        // EVM adresleri büyük/küçük harf farkıyla dönebiliyor, base58 adresler ise harf duyarlı
+        Map<String, String> requested = new HashMap<>();
+        for (String address : tokenAddresses) {
+            requested.put(DexScreenerDecoder.normalizeAddress(address), address);
         }
 
-        String baseTokenSymbol = "Bilinmiyor";
-        String baseTokenName = "Bilinmiyor";
-        if (tokenDetails.optJSONObject("baseToken") != null) {
-            baseTokenSymbol = tokenDetails.optJSONObject("baseToken").optString("symbol", "Bilinmiyor");
-            baseTokenName = tokenDetails.optJSONObject("baseToken").optString("name", "Bilinmiyor");
+        long start = System.nanoTime();
+        try (InputStream in = HttpTransport.shared().get(detailUrl)) {
+            if (scanRecorder == null) {
+                return DexScreenerDecoder.decodePairs(in, requested, DETAIL_BEST_LIQUIDITY_PAIR);
+            }
+            byte[] body = in.readAllBytes();
+            scanRecorder.recordDetails(System.currentTimeMillis(), joined, body);
+            return DexScreenerDecoder.decodePairs(new ByteArrayInputStream(body), requested, DETAIL_BEST_LIQUIDITY_PAIR);
+        } finally {
+            DETAIL_REQUEST_SECONDS.observeSince(start);
         }
+    }
 
-        int marketCap = tokenDetails.optInt("marketCap", 0);
-        String pairUrl = tokenDetails.optString("url", "Bilinmiyor");
-        long pairCreatedAt = tokenDetails.optLong("pairCreatedAt", 0);
+    // Aşamalar arasında taşınan tek bir tokenın o anki verisi ve puanı
+    static class TokenSnapshot {
+        int tokenId;
+        String tokenAddress;
+        TokenData data;
+        long observedAt;
+        int gemScore;
 
-        int txns24h = 0;
-        if (tokenDetails.optJSONObject("txns") != null && tokenDetails.optJSONObject("txns").optJSONObject("h24") != null) {
-            JSONObject txns24hObj = tokenDetails.optJSONObject("txns").optJSONObject("h24");
-            int buys24h = txns24hObj.optInt("buys", 0);
-            int sells24h = txns24hObj.optInt("sells", 0);
-            txns24h = buys24h + sells24h;
+        public TokenSnapshot(int tokenId, String tokenAddress, TokenData data, long observedAt) {
+            this.tokenId = tokenId;
+            this.tokenAddress = tokenAddress;
+            this.data = data;
+            this.observedAt = observedAt;
         }
+    }
 
-        return new TokenData(dexId, priceUsd, priceChange24h, liquidityUsd, volume24h, baseTokenSymbol, baseTokenName, marketCap, pairUrl, pairCreatedAt, txns24h);
+    // token-boosts listesindeki tek bir kayıt
+    static class BoostEntry {
+        String chainId;
+        String tokenAddress;
+        double amount;
+        double totalAmount;
+
+        public BoostEntry(String chainId, String tokenAddress, double amount, double totalAmount) {
+            this.chainId = chainId;
+            this.tokenAddress = tokenAddress;
+            this.amount = amount;
+            this.totalAmount = totalAmount;
+        }
     }
 
     // TokenData Sınıfı
     static class TokenData {
         String dexId;
-        String priceUsd;
+        double priceUsd;
         double priceChange24h;
         double liquidityUsd;
         double volume24h;
@@ -297,9 +797,12 @@ public class Main {
         String pairUrl;
         long pairCreatedAt;
         int txns24h;
+        int buys24h;
+        int sells24h;
 
-        public TokenData(String dexId, String priceUsd, double priceChange24h, double liquidityUsd, double volume24h,
-                         String baseTokenSymbol, String baseTokenName, int marketCap, String pairUrl, long pairCreatedAt, int txns24h) {
+        public TokenData(String dexId, double priceUsd, double priceChange24h, double liquidityUsd, double volume24h,
+                         String baseTokenSymbol, String baseTokenName, int marketCap, String pairUrl, long pairCreatedAt,
+                         int buys24h, int sells24h) {
             this.dexId = dexId;
             this.priceUsd = priceUsd;
             this.priceChange24h = priceChange24h;
@@ -310,11 +813,13 @@ public class Main {
             this.marketCap = marketCap;
             this.pairUrl = pairUrl;
             this.pairCreatedAt = pairCreatedAt;
-            this.txns24h = txns24h;
+            this.txns24h = buys24h + sells24h;
+            this.buys24h = buys24h;
+            this.sells24h = sells24h;
         }
 
-        public long getTokenAgeMs() {
-            return System.currentTimeMillis() - pairCreatedAt;
+        public long getTokenAgeMs(long now) {
+            return now - pairCreatedAt;
         }
     }
 
@@ -322,115 +827,406 @@ public class Main {
     static class GemScorer {
         private static final long THIRTY_DAYS_MS = 30L * 24L * 60L * 60L * 1000L;
 
-        // Ağırlıklar
-        private static double WEIGHT_PRICE_CHANGE = 1.0;
-        private static double WEIGHT_LIQUIDITY = 1.0;
-        private static double WEIGHT_LOW_MARKET_CAP = 2.0;
-        private static double WEIGHT_VOLUME_OVER_MARKETCAP = 2.0;
-        private static double WEIGHT_NEW_TOKEN = 1.0;
-        private static double WEIGHT_HIGH_TXNS = 1.0;
+        // Momentum eşikleri (dakika başına göreli değişim)
+        private static final double MARKET_CAP_VELOCITY_THRESHOLD = 0.02;
+        private static final double LIQUIDITY_DRAIN_THRESHOLD = 0.01;
+        private static final double BUY_RATIO_TREND_THRESHOLD = 0.10;
+        // Momentum özellikleri için gereken en az örnek sayısı
+        private static final int MIN_MOMENTUM_SAMPLES = 3;
+
+        // Pencere ortalamaları (pencere boşsa tüm zamanlar) ve hacim yüzdeliğiyle puanlar.
+        // momentum null ise ya da yeterli örnek yoksa yalnızca anlık görüntü puanlanır.
+        // now: token yaşının hesaplandığı an; tekrar oynatmada kaydın zamanı verilir
+        public static int calculateGemScore(TokenData data, TokenStatistics.Snapshot stats, MomentumTracker.Features momentum,
+                                            Weights weights, long now) {
+            double score = baseScore(data, stats.avgMarketCap(), stats.avgLiquidity(), stats.avgVolume(), weights, now);
+
+            // Hacim, görülen tokenların ilk %10'unda mı
+            if (stats.volumeP90 > 0 && data.volume24h > stats.volumeP90) {
+                score += weights.volumeTopPercentile;
+            }
 
-        // İstatistik bazlı ek puanlar
-        private static double WEIGHT_LIQUIDITY_ABOVE_AVG = 1.5;
-        private static double WEIGHT_VOLUME_ABOVE_AVG = 1.5;
+            if (momentum != null && momentum.samples >= MIN_MOMENTUM_SAMPLES) {
+                score += momentumScore(momentum, weights);
+            }
+
+            return (int)Math.round(score);
+        }
 
-        public static int calculateGemScore(TokenData data, double avgMarketCap, double avgLiquidity, double avgVolume) {
+        // Son taramalar arasındaki değişim: hızlanan market cap ve alım baskısı ödüllendirilir, likidite çekilmesi cezalandırılır
+        private static double momentumScore(MomentumTracker.Features momentum, Weights weights) {
+            double score = 0.0;
+            if (momentum.marketCapVelocity > MARKET_CAP_VELOCITY_THRESHOLD) {
+                score += weights.marketCapMomentum;
+                if (momentum.marketCapAcceleration > 0) {
+                    score += weights.marketCapAcceleration;
+                }
+            }
+            if (momentum.buyRatioTrend > BUY_RATIO_TREND_THRESHOLD) {
+                score += weights.buyPressure;
+            }
+            if (momentum.liquidityDrain > LIQUIDITY_DRAIN_THRESHOLD) {
+                score -= weights.liquidityDrain;
+            }
+            return score;
+        }
+
+        private static double baseScore(TokenData data, double avgMarketCap, double avgLiquidity, double avgVolume,
+                                        Weights weights, long now) {
             double score = 0.0;
 
-            if (data.priceChange24h > 0) score += WEIGHT_PRICE_CHANGE;
-            if (data.liquidityUsd > 5000 && data.liquidityUsd < 50000) score += WEIGHT_LIQUIDITY;
-            if (data.marketCap > 0 && data.marketCap < 50000) score += WEIGHT_LOW_MARKET_CAP;
-            if (data.volume24h > data.marketCap && data.marketCap > 0) score += WEIGHT_VOLUME_OVER_MARKETCAP;
-            if (data.pairCreatedAt > 0 && data.getTokenAgeMs() < THIRTY_DAYS_MS) score += WEIGHT_NEW_TOKEN;
-            if (data.txns24h > 50) score += WEIGHT_HIGH_TXNS;
+            if (data.priceChange24h > 0) score += weights.priceChange;
+            if (data.liquidityUsd > 5000 && data.liquidityUsd < 50000) score += weights.liquidity;
+            if (data.marketCap > 0 && data.marketCap < 50000) score += weights.lowMarketCap;
+            if (data.volume24h > data.marketCap && data.marketCap > 0) score += weights.volumeOverMarketCap;
+            if (data.pairCreatedAt > 0 && data.getTokenAgeMs(now) < THIRTY_DAYS_MS) score += weights.newToken;
+            if (data.txns24h > 50) score += weights.highTxns;
 
             // İstatistiksel karşılaştırmalar
             if (avgLiquidity > 0 && data.liquidityUsd > avgLiquidity * 2) {
-                score += WEIGHT_LIQUIDITY_ABOVE_AVG;
+                score += weights.liquidityAboveAvg;
             }
 
             if (avgVolume > 0 && data.volume24h > avgVolume * 2) {
-                score += WEIGHT_VOLUME_ABOVE_AVG;
+                score += weights.volumeAboveAvg;
             }
 
-            return (int)Math.round(score);
+            return score;
+        }
+
+        // Puan ağırlıkları ve gem eşiği. Canlı tarama DEFAULT ile çalışır; tekrar oynatmada
+        // her yapılandırma ayrı bir örnektir.
+        static class Weights {
+            static final Weights DEFAULT = new Weights();
+
+            double priceChange = 1.0;
+            double liquidity = 1.0;
+            double lowMarketCap = 2.0;
+            double volumeOverMarketCap = 2.0;
+            double newToken = 1.0;
+            double highTxns = 1.0;
+
+            // İstatistik bazlı ek puanlar
+            double liquidityAboveAvg = 1.5;
+            double volumeAboveAvg = 1.5;
+            double volumeTopPercentile = 1.0;
+
+            // Momentum puanları; liquidityDrain puandan düşülür
+            double marketCapMomentum = 1.0;
+            double marketCapAcceleration = 0.5;
+            double buyPressure = 1.0;
+            double liquidityDrain = 2.0;
+
+            int threshold = 5;
+
+            Weights copy() {
+                Weights w = new Weights();
+                w.priceChange = priceChange;
+                w.liquidity = liquidity;
+                w.lowMarketCap = lowMarketCap;
+                w.volumeOverMarketCap = volumeOverMarketCap;
+                w.newToken = newToken;
+                w.highTxns = highTxns;
+                w.liquidityAboveAvg = liquidityAboveAvg;
+                w.volumeAboveAvg = volumeAboveAvg;
+                w.volumeTopPercentile = volumeTopPercentile;
+                w.marketCapMomentum = marketCapMomentum;
+                w.marketCapAcceleration = marketCapAcceleration;
+                w.buyPressure = buyPressure;
+                w.liquidityDrain = liquidityDrain;
+                w.threshold = threshold;
+                return w;
+            }
+
+            void set(String name, double value) {
+                switch (name) {
+                    case "priceChange" -> priceChange = value;
+                    case "liquidity" -> liquidity = value;
+                    case "lowMarketCap" -> lowMarketCap = value;
+                    case "volumeOverMarketCap" -> volumeOverMarketCap = value;
+                    case "newToken" -> newToken = value;
+                    case "highTxns" -> highTxns = value;
+                    case "liquidityAboveAvg" -> liquidityAboveAvg = value;
+                    case "volumeAboveAvg" -> volumeAboveAvg = value;
+                    case "volumeTopPercentile" -> volumeTopPercentile = value;
+                    case "marketCapMomentum" -> marketCapMomentum = value;
+                    case "marketCapAcceleration" -> marketCapAcceleration = value;
+                    case "buyPressure" -> buyPressure = value;
+                    case "liquidityDrain" -> liquidityDrain = value;
+                    case "threshold" -> threshold = (int) value;
+                    default -> throw new IllegalArgumentException("Bilinmeyen ağırlık: " + name);
+                }
+            }
+
+            // "lowMarketCap=1:3:0.5 threshold=4:6:1 newToken=0" biçimindeki satırı açar.
+            // baş:son:adım verilen alanlar aralıktaki her değeri alır; sonuç tüm kombinasyonlardır.
+            // Verilmeyen alanlar DEFAULT değerinde kalır.
+            static List<Weights> parseGrid(String line) {
+                List<Weights> grid = new ArrayList<>();
+                grid.add(DEFAULT.copy());
+                for (String part : line.trim().split("\\s+")) {
+                    if (part.isEmpty()) {
+                        continue;
+                    }
+                    int eq = part.indexOf('=');
+                    if (eq <= 0) {
+                        throw new IllegalArgumentException("Geçersiz ağırlık ifadesi: " + part);
+                    }
+                    String name = part.substring(0, eq);
+                    List<Weights> expanded = new ArrayList<>();
+                    for (double value : parseRange(part.substring(eq + 1))) {
+                        for (Weights w : grid) {
+                            Weights copy = w.copy();
+                            copy.set(name, value);
+                            expanded.add(copy);
+                        }
+                    }
+                    grid = expanded;
+                }
+                return grid;
+            }
+
+            private static List<Double> parseRange(String text) {
+                String[] parts = text.split(":");
+                if (parts.length == 1) {
+                    return List.of(Double.parseDouble(parts[0]));
+                }
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Aralık baş:son:adım biçiminde olmalı: " + text);
+                }
+                double from = Double.parseDouble(parts[0]);
+                double to = Double.parseDouble(parts[1]);
+                double step = Double.parseDouble(parts[2]);
+                if (step <= 0) {
+                    throw new IllegalArgumentException("Adım pozitif olmalı: " + text);
+                }
+                List<Double> values = new ArrayList<>();
+                // Kayan nokta birikimini önlemek için her değer indeksten hesaplanır
+                for (int i = 0; from + i * step <= to + step * 1e-9; i++) {
+                    values.add(from + i * step);
+                }
+                return values;
+            }
+
+            @Override
+            public String toString() {
+                return String.format(Locale.ROOT,
+                        "threshold=%d priceChange=%s liquidity=%s lowMarketCap=%s volumeOverMarketCap=%s newToken=%s " +
+                                "highTxns=%s liquidityAboveAvg=%s volumeAboveAvg=%s volumeTopPercentile=%s " +
+                                "marketCapMomentum=%s marketCapAcceleration=%s buyPressure=%s liquidityDrain=%s",
+                        threshold, priceChange, liquidity, lowMarketCap, volumeOverMarketCap, newToken,
+                        highTxns, liquidityAboveAvg, volumeAboveAvg, volumeTopPercentile,
+                        marketCapMomentum, marketCapAcceleration, buyPressure, liquidityDrain);
+            }
         }
     }
 
     // Telegram bildirim sınıfı
     static class TelegramNotifier {
+        static final String DEFAULT_BASE_URL = "https://api.telegram.org";
+
         private String botToken;
+        private String baseUrl;
 
         public TelegramNotifier(String botToken) {
+            this(botToken, DEFAULT_BASE_URL);
+        }
+
+        public TelegramNotifier(String botToken, String baseUrl) {
             this.botToken = botToken;
+            this.baseUrl = baseUrl;
         }
 
-        public void sendMessage(long chatId, String message) {
-            try {
-                String telegramApiUrl = String.format("https://api.telegram.org/bot%s/sendMessage", botToken);
-                HttpURLConnection conn = (HttpURLConnection) new URL(telegramApiUrl).openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setDoOutput(true);
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(15000);
-
-                message = message.replace("\"", "\\\"");
-
-                String payload = String.format("{\"chat_id\":%d,\"text\":\"%s\"}", chatId, message);
-                try (OutputStream os = conn.getOutputStream()) {
-                    os.write(payload.getBytes());
-                    os.flush();
-                }
+        private static final MetricsRegistry.Histogram SEND_SECONDS = METRICS.histogram(
+                "scanner_telegram_send_seconds", "Telegram sendMessage çağrısı süresi");
 
-                int responseCode = conn.getResponseCode();
+        public SendResult sendMessage(long chatId, String message) {
+            long start = System.nanoTime();
+            try {
+                String telegramApiUrl = String.format("%s/bot%s/sendMessage", baseUrl, botToken);
+                String payload = new JSONObject()
+                        .put("chat_id", chatId)
+                        .put("text", message)
+                        .toString();
+
+                HttpResponse<String> response = HttpTransport.shared().postJson(telegramApiUrl, payload);
+                int responseCode = response.statusCode();
                 if (responseCode != 200) {
                     LOGGER.warning("Telegram mesajı gönderilemedi. HTTP Durum Kodu: " + responseCode);
+                    return new SendResult(responseCode, parseRetryAfter(response));
                 }
+                return new SendResult(responseCode, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new SendResult(-1, 0);
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Telegram'a mesaj gönderirken hata: " + e.getMessage(), e);
+                return new SendResult(-1, 0);
+            } finally {
+                SEND_SECONDS.observeSince(start);
+            }
+        }
+
+        // 429 cevabında Telegram beklenecek süreyi parameters.retry_after (saniye) alanında döner
+        private static long parseRetryAfter(HttpResponse<String> response) {
+            try {
+                JSONObject parameters = new JSONObject(response.body()).optJSONObject("parameters");
+                if (parameters != null && parameters.has("retry_after")) {
+                    return parameters.optLong("retry_after", 0);
+                }
+                return response.headers().firstValue("Retry-After").map(Long::parseLong).orElse(0L);
+            } catch (RuntimeException e) {
+                // Gövde JSON değil ya da başlık saniye cinsinden değil
+                return 0;
             }
         }
     }
 
+    // Hiçbir şey göndermeyen bildirici; tekrar oynatmada mesajlar buraya gider ve yalnızca sayılır
+    static class NullNotifier extends TelegramNotifier {
+        private final LongAdder sent = new LongAdder();
+
+        public NullNotifier() {
+            super(null);
+        }
+
+        @Override
+        public SendResult sendMessage(long chatId, String message) {
+            sent.increment();
+            return new SendResult(200, 0);
+        }
+
+        public long sent() {
+            return sent.sum();
+        }
+    }
+
+    // Telegram gönderiminin sonucu. statusCode -1 ise istek hiç cevap alamadı.
+    static class SendResult {
+        int statusCode;
+        long retryAfterSeconds;
+
+        public SendResult(int statusCode, long retryAfterSeconds) {
+            this.statusCode = statusCode;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public boolean isSuccess() {
+            return statusCode == 200;
+        }
+
+        public boolean isRateLimited() {
+            return statusCode == 429;
+        }
+
+        // 4xx hataları (429 hariç) tekrar denenerek düzelmez
+        public boolean isRetryable() {
+            return statusCode == -1 || statusCode == 429 || statusCode >= 500;
+        }
+    }
+
     // Veritabanı yöneticisi
-    static class DatabaseManager {
+    static class DatabaseManager implements TokenMetricsStore {
+        private static final MetricsRegistry.Histogram DB_GET_TOKEN_INFO_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "get_token_info");
+        private static final MetricsRegistry.Histogram DB_UPSERT_TOKEN_INFO_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "upsert_token_info");
+        private static final MetricsRegistry.Histogram DB_LOAD_TOKEN_INFO_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "load_token_info");
+        private static final MetricsRegistry.Histogram DB_CLAIM_TOKEN_INFO_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "claim_token_info");
+        private static final MetricsRegistry.Histogram DB_RELEASE_TOKEN_INFO_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "release_token_info");
+        private static final MetricsRegistry.Histogram DB_CONFIRM_TOKEN_INFO_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "confirm_token_info");
+        private static final MetricsRegistry.Histogram DB_HEARTBEAT_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "heartbeat");
+        private static final MetricsRegistry.Histogram DB_INSERT_TOKEN_METRICS_BATCH_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "insert_token_metrics_batch");
+        private static final MetricsRegistry.Histogram DB_LOAD_STATISTICS_SECONDS = METRICS.histogram(
+                "scanner_db_operation_seconds", "DatabaseManager çağrı süresi", "op", "load_statistics");
+
         private String dbUrl;
+        private Connection conn;
+        // SQL metni -> derlenmiş ifade. Her çağrıda yeniden prepare etmemek için tutulur.
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
 
         public DatabaseManager(String dbUrl) {
             this.dbUrl = dbUrl;
         }
 
-        public void initializeDatabase() {
+        public synchronized void initializeDatabase() {
             String createTableSQL = "CREATE TABLE IF NOT EXISTS token_info (" +
                     "tokenAddress TEXT PRIMARY KEY," +
                     "lastNotifiedTime LONG," +
                     "initialMarketCap LONG," +
                     "lastNotifiedMarketCap LONG" +
                     ")";
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 Statement stmt = conn.createStatement()) {
+            String createMetricsTableSQL = "CREATE TABLE IF NOT EXISTS token_metrics (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "tokenAddress TEXT," +
+                    "marketCap LONG," +
+                    "liquidityUsd DOUBLE," +
+                    "volume24h DOUBLE," +
+                    "createdAt LONG" +
+                    ")";
+            try (Statement stmt = connection().createStatement()) {
                 stmt.execute(createTableSQL);
+                stmt.execute(createMetricsTableSQL);
+                // Token geçmişi sorguları tabloya dönmeden bu kapsayan indeksten karşılanır;
+                // eski (tokenAddress, createdAt) indeksinin yerini alır
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_token_metrics_token_created_cover " +
+                        "ON token_metrics(tokenAddress, createdAt, marketCap, liquidityUsd, volume24h)");
+                stmt.execute("DROP INDEX IF EXISTS idx_token_metrics_token_created");
+                // Zaman aralığı taramaları, özetleme ve saklama süresi silmeleri için
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_token_metrics_created ON token_metrics(createdAt)");
+                MetricsMaintenance.createTables(stmt);
+                // Küme modunda her örneğin son kalp atışı ve kira bitişi
+                stmt.execute("CREATE TABLE IF NOT EXISTS cluster_members (" +
+                        "instanceId TEXT PRIMARY KEY," +
+                        "heartbeatAt LONG," +
+                        "leaseUntil LONG" +
+                        ")");
             } catch (SQLException e) {
                 LOGGER.log(Level.SEVERE, "Veritabanı oluşturulurken hata: " + e.getMessage(), e);
             }
+        }
 
-            // token_metrics tablosu oluşturmayı unutmayın.
-            // Aşağıdaki tablo örnek:
-            // CREATE TABLE IF NOT EXISTS token_metrics (
-            //    id INTEGER PRIMARY KEY AUTOINCREMENT,
-            //    tokenAddress TEXT,
-            //    marketCap LONG,
-            //    liquidityUsd DOUBLE,
-            //    volume24h DOUBLE,
-            //    createdAt LONG
-            // );
+        // Bağlantı uygulama boyunca açık kalır; koparsa bir sonraki çağrıda yeniden açılır.
+        private Connection connection() throws SQLException {
+            if (conn == null || conn.isClosed()) {
+                statements.clear();
+                conn = DriverManager.getConnection(dbUrl);
+                try (Statement stmt = conn.createStatement()) {
+                    // Yalnızca henüz tablo içermeyen yeni bir dosyada etkilidir; silinen sayfalar
+                    // MetricsMaintenance'ın incremental_vacuum çağrısıyla dosyadan geri verilir
+                    stmt.execute("PRAGMA auto_vacuum=INCREMENTAL");
+                    stmt.execute("PRAGMA journal_mode=WAL");
+                    // WAL ile NORMAL, her commit'te fsync yapmadan tutarlılığı korur
+                    stmt.execute("PRAGMA synchronous=NORMAL");
+                    stmt.execute("PRAGMA cache_size=-16000");
+                    stmt.execute("PRAGMA temp_store=MEMORY");
+                    stmt.execute("PRAGMA busy_timeout=5000");
+                }
+            }
+            return conn;
+        }
+
+        private PreparedStatement statement(String sql) throws SQLException {
+            Connection c = connection();
+            PreparedStatement pstmt = statements.get(sql);
+            if (pstmt == null || pstmt.isClosed()) {
+                pstmt = c.prepareStatement(sql);
+                statements.put(sql, pstmt);
+            }
+            return pstmt;
         }
 
-        public TokenInfo getTokenInfo(String tokenAddress) {
+        public synchronized TokenInfo getTokenInfo(String tokenAddress) {
             String sql = "SELECT lastNotifiedTime, initialMarketCap, lastNotifiedMarketCap FROM token_info WHERE tokenAddress = ?";
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            long start = System.nanoTime();
+            try {
+                PreparedStatement pstmt = statement(sql);
                 pstmt.setString(1, tokenAddress);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
@@ -442,69 +1238,320 @@ public class Main {
                 }
             } catch (SQLException e) {
                 LOGGER.log(Level.WARNING, "Veritabanından bilgi alınırken hata: " + e.getMessage(), e);
+            } finally {
+                DB_GET_TOKEN_INFO_SECONDS.observeSince(start);
             }
             return null;
         }
 
-        public void insertTokenInfo(String tokenAddress, long lastNotifiedTime, long marketCap) {
-            String sql = "INSERT INTO token_info(tokenAddress, lastNotifiedTime, initialMarketCap, lastNotifiedMarketCap) VALUES(?,?,?,?)";
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // Kayıt yoksa ekler, varsa yalnızca son bildirim alanlarını günceller; initialMarketCap korunur
+        public synchronized void upsertTokenInfo(String tokenAddress, long lastNotifiedTime, long marketCap) {
+            String sql = "INSERT INTO token_info(tokenAddress, lastNotifiedTime, initialMarketCap, lastNotifiedMarketCap) VALUES(?,?,?,?) " +
+                    "ON CONFLICT(tokenAddress) DO UPDATE SET lastNotifiedTime = excluded.lastNotifiedTime, " +
+                    "lastNotifiedMarketCap = excluded.lastNotifiedMarketCap";
+            long start = System.nanoTime();
+            try {
+                PreparedStatement pstmt = statement(sql);
                 pstmt.setString(1, tokenAddress);
                 pstmt.setLong(2, lastNotifiedTime);
                 pstmt.setLong(3, marketCap);
                 pstmt.setLong(4, marketCap);
                 pstmt.executeUpdate();
             } catch (SQLException e) {
-                LOGGER.log(Level.WARNING, "Veritabanına eklerken hata: " + e.getMessage(), e);
+                LOGGER.log(Level.WARNING, "Veritabanına yazarken hata: " + e.getMessage(), e);
+            } finally {
+                DB_UPSERT_TOKEN_INFO_SECONDS.observeSince(start);
+            }
+        }
+
+        // Bildirim hakkını alır: kayıt yoksa eklenir, varsa yalnızca bekleme süresi dolmuşsa ya da market cap
+        // çarpan kadar artmışsa güncellenir. Koşul ve yazım aynı ifadede olduğundan aynı veritabanını kullanan
+        // süreçlerden yalnızca biri 1 satır etkiler ve hakkı alır. Satırın haktan önceki hali aynı BEGIN IMMEDIATE
+        // transaction'ında okunur; hak bırakılırsa bellekteki kopyaya (süresi dolup düşmüş olabilir) değil bu
+        // değerlere dönülür. Hak alınamadıysa null döner. Hak gönderimin yalnızca bir örnekte başlamasını sağlar;
+        // mesajın Telegram'a tam bir kez ulaşmasını garanti etmez.
+        public synchronized TokenClaim claimTokenInfo(String tokenAddress, long now, long marketCap,
+                                                      long cooldownPeriod, double marketCapMultiplier) {
+            String sql = "INSERT INTO token_info(tokenAddress, lastNotifiedTime, initialMarketCap, lastNotifiedMarketCap) VALUES(?,?,?,?) " +
+                    "ON CONFLICT(tokenAddress) DO UPDATE SET lastNotifiedTime = excluded.lastNotifiedTime, " +
+                    "lastNotifiedMarketCap = excluded.lastNotifiedMarketCap " +
+                    "WHERE token_info.lastNotifiedTime <= ? " +
+                    "OR (token_info.lastNotifiedMarketCap > 0 AND excluded.lastNotifiedMarketCap > token_info.lastNotifiedMarketCap * ?)";
+            long start = System.nanoTime();
+            Statement tx = null;
+            try {
+                tx = connection().createStatement();
+                tx.execute("BEGIN IMMEDIATE");
+                TokenInfo previous = null;
+                PreparedStatement select = statement("SELECT lastNotifiedTime, initialMarketCap, lastNotifiedMarketCap FROM token_info WHERE tokenAddress = ?");
+                select.setString(1, tokenAddress);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) {
+                        previous = new TokenInfo(tokenAddress, rs.getLong("lastNotifiedTime"),
+                                rs.getLong("initialMarketCap"), rs.getLong("lastNotifiedMarketCap"));
+                    }
+                }
+                PreparedStatement pstmt = statement(sql);
+                pstmt.setString(1, tokenAddress);
+                pstmt.setLong(2, now);
+                pstmt.setLong(3, marketCap);
+                pstmt.setLong(4, marketCap);
+                pstmt.setLong(5, now - cooldownPeriod);
+                pstmt.setDouble(6, marketCapMultiplier);
+                boolean claimed = pstmt.executeUpdate() == 1;
+                tx.execute("COMMIT");
+                return claimed ? new TokenClaim(previous) : null;
+            } catch (SQLException e) {
+                // Hak alınamadıysa bildirim yapılmaz; çift bildirim yerine kaçan bildirim tercih edilir
+                LOGGER.log(Level.WARNING, "Bildirim hakkı alınırken hata: " + e.getMessage(), e);
+                rollbackQuietly(tx);
+                return null;
+            } finally {
+                closeQuietly(tx);
+                DB_CLAIM_TOKEN_INFO_SECONDS.observeSince(start);
             }
         }
 
-        public void updateTokenInfo(String tokenAddress, long lastNotifiedTime, long lastNotifiedMarketCap) {
-            String sql = "UPDATE token_info SET lastNotifiedTime = ?, lastNotifiedMarketCap = ? WHERE tokenAddress = ?";
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setLong(1, lastNotifiedTime);
-                pstmt.setLong(2, lastNotifiedMarketCap);
+        // Gönderilen bildirimi, hakkı alırken yazılan satırın üzerine işler. Bu arada başka bir süreç
+        // hakkı aldıysa (lastNotifiedTime değiştiyse) onun daha yeni kaydı ezilmez.
+        public synchronized void confirmTokenInfo(String tokenAddress, long claimedAt, long notifiedTime, long marketCap) {
+            String sql = "UPDATE token_info SET lastNotifiedTime = ?, lastNotifiedMarketCap = ? " +
+                    "WHERE tokenAddress = ? AND lastNotifiedTime = ?";
+            long start = System.nanoTime();
+            try {
+                PreparedStatement pstmt = statement(sql);
+                pstmt.setLong(1, notifiedTime);
+                pstmt.setLong(2, marketCap);
                 pstmt.setString(3, tokenAddress);
+                pstmt.setLong(4, claimedAt);
                 pstmt.executeUpdate();
             } catch (SQLException e) {
-                LOGGER.log(Level.WARNING, "Veritabanında güncellerken hata: " + e.getMessage(), e);
+                LOGGER.log(Level.WARNING, "Bildirim kaydı onaylanırken hata: " + e.getMessage(), e);
+            } finally {
+                DB_CONFIRM_TOKEN_INFO_SECONDS.observeSince(start);
             }
         }
 
-        public void insertTokenMetrics(String tokenAddress, long marketCap, double liquidityUsd, double volume24h, long createdAt) {
-            String sql = "INSERT INTO token_metrics(tokenAddress, marketCap, liquidityUsd, volume24h, createdAt) VALUES(?,?,?,?,?)";
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, tokenAddress);
-                pstmt.setLong(2, marketCap);
-                pstmt.setDouble(3, liquidityUsd);
-                pstmt.setDouble(4, volume24h);
-                pstmt.setLong(5, createdAt);
+        // Gönderilemeyen bildirimin hakkını claimTokenInfo'nun okuduğu önceki değerlere döndürür. Satır hak
+        // alınırken oluştuysa (previous null) silinir; sıfırlanmış bir satır bırakılmaz.
+        // Bu arada başka bir süreç hakkı aldıysa (lastNotifiedTime değiştiyse) dokunulmaz.
+        public synchronized void releaseTokenInfo(String tokenAddress, long claimedAt, TokenInfo previous) {
+            long start = System.nanoTime();
+            try {
+                PreparedStatement pstmt;
+                if (previous == null) {
+                    pstmt = statement("DELETE FROM token_info WHERE tokenAddress = ? AND lastNotifiedTime = ?");
+                    pstmt.setString(1, tokenAddress);
+                    pstmt.setLong(2, claimedAt);
+                } else {
+                    pstmt = statement("UPDATE token_info SET lastNotifiedTime = ?, lastNotifiedMarketCap = ? " +
+                            "WHERE tokenAddress = ? AND lastNotifiedTime = ?");
+                    pstmt.setLong(1, previous.getLastNotifiedTime());
+                    pstmt.setLong(2, previous.getLastNotifiedMarketCap());
+                    pstmt.setString(3, tokenAddress);
+                    pstmt.setLong(4, claimedAt);
+                }
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Bildirim hakkı geri bırakılırken hata: " + e.getMessage(), e);
+            } finally {
+                DB_RELEASE_TOKEN_INFO_SECONDS.observeSince(start);
+            }
+        }
+
+        // Örneğin kirasını yeniler ve kirası sürmekte olan üyeleri döner; hata olursa null döner
+        public synchronized List<String> heartbeat(String instanceId, long now, long leaseUntil) {
+            long start = System.nanoTime();
+            try {
+                PreparedStatement upsert = statement("INSERT INTO cluster_members(instanceId, heartbeatAt, leaseUntil) VALUES(?,?,?) " +
+                        "ON CONFLICT(instanceId) DO UPDATE SET heartbeatAt = excluded.heartbeatAt, leaseUntil = excluded.leaseUntil");
+                upsert.setString(1, instanceId);
+                upsert.setLong(2, now);
+                upsert.setLong(3, leaseUntil);
+                upsert.executeUpdate();
+
+                PreparedStatement live = statement("SELECT instanceId FROM cluster_members WHERE leaseUntil > ? ORDER BY instanceId");
+                live.setLong(1, now);
+                List<String> members = new ArrayList<>();
+                try (ResultSet rs = live.executeQuery()) {
+                    while (rs.next()) {
+                        members.add(rs.getString("instanceId"));
+                    }
+                }
+                return members;
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Kalp atışı yazılamadı: " + e.getMessage(), e);
+                return null;
+            } finally {
+                DB_HEARTBEAT_SECONDS.observeSince(start);
+            }
+        }
+
+        // Kapanışta çağrılır; diğer üyeler kiranın dolmasını beklemeden payı devralır
+        public synchronized void removeMember(String instanceId) {
+            try {
+                PreparedStatement pstmt = statement("DELETE FROM cluster_members WHERE instanceId = ?");
+                pstmt.setString(1, instanceId);
                 pstmt.executeUpdate();
             } catch (SQLException e) {
-                LOGGER.log(Level.WARNING, "token_metrics tablosuna eklerken hata: " + e.getMessage(), e);
+                LOGGER.log(Level.WARNING, "Küme üyeliği silinemedi: " + e.getMessage(), e);
             }
         }
 
-        public TokenAverages getAverages() {
-            // LIMIT kaldırıldı, böylece tüm tablodan ortalama alınır.
-            String sql = "SELECT AVG(marketCap) AS avgMarketCap, AVG(liquidityUsd) AS avgLiquidity, AVG(volume24h) AS avgVolume FROM token_metrics";
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // Verilen zamandan sonra bildirimi yapılmış kayıtları tek tek consumer'a verir
+        public synchronized void loadTokenInfo(long notifiedSince, Consumer<TokenInfo> consumer) {
+            String sql = "SELECT tokenAddress, lastNotifiedTime, initialMarketCap, lastNotifiedMarketCap FROM token_info WHERE lastNotifiedTime >= ?";
+            long start = System.nanoTime();
+            try {
+                PreparedStatement pstmt = statement(sql);
+                pstmt.setLong(1, notifiedSince);
                 try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(new TokenInfo(rs.getString("tokenAddress"), rs.getLong("lastNotifiedTime"),
+                                rs.getLong("initialMarketCap"), rs.getLong("lastNotifiedMarketCap")));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "token_info yüklenirken hata: " + e.getMessage(), e);
+            } finally {
+                DB_LOAD_TOKEN_INFO_SECONDS.observeSince(start);
+            }
+        }
+
+        // Kayıtları tek transaction içinde addBatch/executeBatch ile yazar; tek fsync ile biter.
+        public synchronized void insertTokenMetricsBatch(List<TokenMetric> metrics) {
+            String sql = "INSERT INTO token_metrics(tokenAddress, marketCap, liquidityUsd, volume24h, createdAt) VALUES(?,?,?,?,?)";
+            Connection c = null;
+            long start = System.nanoTime();
+            try {
+                c = connection();
+                PreparedStatement pstmt = statement(sql);
+                c.setAutoCommit(false);
+                for (TokenMetric metric : metrics) {
+                    pstmt.setString(1, metric.tokenAddress);
+                    pstmt.setLong(2, metric.marketCap);
+                    pstmt.setDouble(3, metric.liquidityUsd);
+                    pstmt.setDouble(4, metric.volume24h);
+                    pstmt.setLong(5, metric.createdAt);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "token_metrics tablosuna toplu eklerken hata: " + e.getMessage(), e);
+                rollbackQuietly(c);
+            } finally {
+                restoreAutoCommit(c);
+                DB_INSERT_TOKEN_METRICS_BATCH_SECONDS.observeSince(start);
+            }
+        }
+
+        private void rollbackQuietly(Connection c) {
+            if (c == null) {
+                return;
+            }
+            try {
+                c.rollback();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Rollback sırasında hata: " + e.getMessage(), e);
+            }
+        }
+
+        // Elle açılan (BEGIN IMMEDIATE) transaction'ı geri alır
+        private void rollbackQuietly(Statement tx) {
+            if (tx == null) {
+                return;
+            }
+            try {
+                tx.execute("ROLLBACK");
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Rollback sırasında hata: " + e.getMessage(), e);
+            }
+        }
+
+        private void closeQuietly(Statement stmt) {
+            if (stmt == null) {
+                return;
+            }
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Statement kapatılamadı: " + e.getMessage(), e);
+            }
+        }
+
+        private void restoreAutoCommit(Connection c) {
+            if (c == null) {
+                return;
+            }
+            try {
+                c.setAutoCommit(true);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "autoCommit geri alınamadı: " + e.getMessage(), e);
+            }
+        }
+
+        // İstatistik motorunu başlangıçta bir kez doldurur: tüm zamanlar toplamları tek sorguyla,
+        // pencere ve hacim yüzdeliği ise en son kayıtlardan eskiden yeniye doğru okunur.
+        // Eski ham satırlar özet tablolarına taşınıp silindiği için toplamlar her seviyenin henüz üst seviyeye
+        // toplanmamış aralığından okunur: günlük < 1d işareti <= saatlik < 1h işareti <= dakikalık < 1m işareti <= ham.
+        public synchronized void loadStatistics(TokenStatistics statistics) {
+            String rolled = "(SELECT COALESCE(MAX(CASE WHEN level = '1m' THEN rolledUntil END), 0) AS m, " +
+                    "COALESCE(MAX(CASE WHEN level = '1h' THEN rolledUntil END), 0) AS h, " +
+                    "COALESCE(MAX(CASE WHEN level = '1d' THEN rolledUntil END), 0) AS d FROM token_metrics_rollup_state) w";
+            String totalsSql = "SELECT SUM(cnt) AS cnt, SUM(sm) AS sumMarketCap, SUM(sl) AS sumLiquidity, SUM(sv) AS sumVolume FROM (" +
+                    "SELECT COUNT(*) AS cnt, SUM(marketCap) AS sm, SUM(liquidityUsd) AS sl, SUM(volume24h) AS sv " +
+                    "FROM token_metrics, " + rolled + " WHERE createdAt >= w.m " +
+                    "UNION ALL SELECT SUM(samples), SUM(sumMarketCap), SUM(sumLiquidity), SUM(sumVolume) " +
+                    "FROM token_metrics_1m, " + rolled + " WHERE bucketStart >= w.h AND bucketStart < w.m " +
+                    "UNION ALL SELECT SUM(samples), SUM(sumMarketCap), SUM(sumLiquidity), SUM(sumVolume) " +
+                    "FROM token_metrics_1h, " + rolled + " WHERE bucketStart >= w.d AND bucketStart < w.h " +
+                    "UNION ALL SELECT SUM(samples), SUM(sumMarketCap), SUM(sumLiquidity), SUM(sumVolume) " +
+                    "FROM token_metrics_1d, " + rolled + " WHERE bucketStart < w.d)";
+            String recentSql = "SELECT marketCap, liquidityUsd, volume24h, createdAt FROM (" +
+                    "SELECT marketCap, liquidityUsd, volume24h, createdAt FROM token_metrics ORDER BY createdAt DESC LIMIT ?" +
+                    ") ORDER BY createdAt ASC";
+            long start = System.nanoTime();
+            try {
+                try (ResultSet rs = statement(totalsSql).executeQuery()) {
                     if (rs.next()) {
-                        double avgMarketCap = rs.getDouble("avgMarketCap");
-                        double avgLiquidity = rs.getDouble("avgLiquidity");
-                        double avgVolume = rs.getDouble("avgVolume");
-                        return new TokenAverages(avgMarketCap, avgLiquidity, avgVolume);
+                        statistics.seedTotals(rs.getLong("cnt"), rs.getDouble("sumMarketCap"),
+                                rs.getDouble("sumLiquidity"), rs.getDouble("sumVolume"));
+                    }
+                }
+                PreparedStatement pstmt = statement(recentSql);
+                pstmt.setInt(1, statistics.windowCapacity());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        statistics.seedRecent(rs.getLong("marketCap"), rs.getDouble("liquidityUsd"),
+                                rs.getDouble("volume24h"), rs.getLong("createdAt"));
                     }
                 }
             } catch (SQLException e) {
-                LOGGER.log(Level.WARNING, "Ortalama değerleri alırken hata: " + e.getMessage(), e);
+                LOGGER.log(Level.WARNING, "İstatistikler yüklenirken hata: " + e.getMessage(), e);
+            } finally {
+                DB_LOAD_STATISTICS_SECONDS.observeSince(start);
+            }
+        }
+
+        // Önbellekteki ifadeleri ve bağlantıyı kapatır. Kapanış sırasında bir kez çağrılır.
+        public synchronized void close() {
+            for (PreparedStatement pstmt : statements.values()) {
+                try {
+                    pstmt.close();
+                } catch (SQLException e) {
+                    LOGGER.log(Level.FINE, "İfade kapatılırken hata: " + e.getMessage(), e);
+                }
+            }
+            statements.clear();
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    LOGGER.log(Level.WARNING, "Veritabanı bağlantısı kapatılırken hata: " + e.getMessage(), e);
+                }
+                conn = null;
             }
-            return new TokenAverages(0,0,0);
         }
 
     // Basit bir POJO sınıf
@@ -538,17 +1585,40 @@ public class Main {
         }
     }
 
-    static class TokenAverages {
-        double avgMarketCap;
-        double avgLiquidity;
-        double avgVolume;
+    // Alınan bildirim hakkı; previous satırın haktan önceki hali, satır hakla oluştuysa null
+    static class TokenClaim {
+        final TokenInfo previous;
 
-        public TokenAverages(double avgMarketCap, double avgLiquidity, double avgVolume) {
-            this.avgMarketCap = avgMarketCap;
-            this.avgLiquidity = avgLiquidity;
-            this.avgVolume = avgVolume;
+        TokenClaim(TokenInfo previous) {
+            this.previous = previous;
         }
     }
 
+    // token_metrics tablosundaki tek bir kayıt
+    static class TokenMetric {
+        String tokenAddress;
+        long marketCap;
+        double liquidityUsd;
+        double volume24h;
+        long createdAt;
+        // token_metrics tablosunda karşılığı yok; yalnızca sütun deposuna yazılır
+        int txns24h;
+        double priceChange24h;
+
+        public TokenMetric(String tokenAddress, long marketCap, double liquidityUsd, double volume24h, long createdAt) {
+            this(tokenAddress, marketCap, liquidityUsd, volume24h, createdAt, 0, 0.0);
+        }
 
+        public TokenMetric(String tokenAddress, long marketCap, double liquidityUsd, double volume24h, long createdAt,
+                           int txns24h, double priceChange24h) {
+            this.tokenAddress = tokenAddress;
+            this.marketCap = marketCap;
+            this.liquidityUsd = liquidityUsd;
+            this.volume24h = volume24h;
+            this.createdAt = createdAt;
+            this.txns24h = txns24h;
+            this.priceChange24h = priceChange24h;
+        }
+    }
+    }
 }
@@ -0,0 +1,410 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// token_metrics için arka plan bakımı: ham anlık görüntüler dakikalık, dakikalıklar saatlik, saatlikler
+// günlük özet tablolarına (token başına min/max/ortalama/son) toplanır; saklama süresini aşan satırlar silinir
+// ve boşalan sayfalar incremental vacuum ile dosyadan geri verilir.
+// Kendi bağlantısı ve thread'i vardır; DatabaseManager kilidini tutmaz. Her adım kısa bir BEGIN IMMEDIATE
+// transaction'ıdır, böylece yazım kuyruğu (ve küme modunda diğer süreçler) en fazla bir adım kadar bekler.
+// Bir seviyenin satırları ancak üst seviyeye toplandıktan sonra silinir; tüm zamanlar toplamları
+// (DatabaseManager.loadStatistics) her seviyenin kendi aralığından okunarak kayıpsız hesaplanır.
+class MetricsMaintenance implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsMaintenance.class.getName());
+
+    private static final MetricsRegistry.Histogram ROLLUP_SECONDS = MetricsRegistry.shared().histogram(
+            "scanner_db_maintenance_seconds", "token_metrics bakım adımlarının süresi", "step", "rollup");
+    private static final MetricsRegistry.Histogram RETENTION_SECONDS = MetricsRegistry.shared().histogram(
+            "scanner_db_maintenance_seconds", "token_metrics bakım adımlarının süresi", "step", "retention");
+    private static final MetricsRegistry.Histogram VACUUM_SECONDS = MetricsRegistry.shared().histogram(
+            "scanner_db_maintenance_seconds", "token_metrics bakım adımlarının süresi", "step", "vacuum");
+    private static final MetricsRegistry.Counter VACUUM_PAGES = MetricsRegistry.shared().counter(
+            "scanner_db_vacuum_pages_total", "incremental_vacuum ile dosyadan geri verilen sayfalar");
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    // Tek transaction'da silinen en fazla satır
+    private static final int DELETE_BATCH = 5000;
+
+    // Özet tablolarında her metrik için tutulan sütunlar: min, max, toplam, son. Ortalama toplam/örnekten türetilir.
+    private static final String[] METRICS = {"MarketCap", "Liquidity", "Volume"};
+    private static final String[] RAW_COLUMNS = {"marketCap", "liquidityUsd", "volume24h"};
+
+    // Ham tablo -> dakikalık -> saatlik -> günlük
+    private static final RollupLevel[] LEVELS = {
+            new RollupLevel("1m", "token_metrics_1m", MINUTE, 6 * HOUR, null),
+            new RollupLevel("1h", "token_metrics_1h", HOUR, 7 * DAY, "token_metrics_1m"),
+            new RollupLevel("1d", "token_metrics_1d", DAY, 90 * DAY, "token_metrics_1h"),
+    };
+
+    private final String dbUrl;
+    private final long intervalMillis;
+    private final long latenessMillis;
+    private final long rawRetention;
+    // Seviye sırasıyla dakikalık, saatlik, günlük saklama süresi; 0 ise silinmez
+    private final long[] retentions;
+    private final int vacuumPages;
+    private final boolean convertAutoVacuum;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "metrics-maintenance");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Connection conn;
+    private boolean prepared;
+
+    public MetricsMaintenance(String dbUrl, long intervalMillis, long latenessMillis, long rawRetention,
+                              long minuteRetention, long hourRetention, long dayRetention,
+                              int vacuumPages, boolean convertAutoVacuum) {
+        this.dbUrl = dbUrl;
+        this.intervalMillis = intervalMillis;
+        this.latenessMillis = latenessMillis;
+        this.rawRetention = rawRetention;
+        this.retentions = new long[]{minuteRetention, hourRetention, dayRetention};
+        this.vacuumPages = vacuumPages;
+        this.convertAutoVacuum = convertAutoVacuum;
+    }
+
+    // Özet tabloları ve seviye başına "şu zamana kadar toplandı" işaretleri. İlk açılışta DatabaseManager çağırır,
+    // çünkü tüm zamanlar toplamları başlangıçta bu tablolardan da okunur.
+    static void createTables(Statement stmt) throws SQLException {
+        for (RollupLevel level : LEVELS) {
+            StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(level.table).append(" (")
+                    .append("tokenAddress TEXT NOT NULL, bucketStart INTEGER NOT NULL, samples INTEGER, lastAt INTEGER");
+            for (String metric : METRICS) {
+                sql.append(", min").append(metric).append(" REAL, max").append(metric).append(" REAL, sum")
+                        .append(metric).append(" REAL, last").append(metric).append(" REAL, avg").append(metric)
+                        .append(" REAL GENERATED ALWAYS AS (sum").append(metric).append(" / samples) VIRTUAL");
+            }
+            // Birincil anahtar tabloyu token ve zamana göre kümeler; token geçmişi sorguları ek indeks gerektirmez
+            sql.append(", PRIMARY KEY (tokenAddress, bucketStart)) WITHOUT ROWID");
+            stmt.execute(sql.toString());
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + level.table + "_bucket ON " + level.table + "(bucketStart)");
+        }
+        stmt.execute("CREATE TABLE IF NOT EXISTS token_metrics_rollup_state (level TEXT PRIMARY KEY, rolledUntil INTEGER)");
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::runOnce, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runOnce() {
+        try {
+            if (!prepared) {
+                prepare();
+                prepared = true;
+            }
+            long now = System.currentTimeMillis();
+            long rolled = rollup(now);
+            long deleted = applyRetention(now);
+            vacuum();
+            if (rolled > 0 || deleted > 0) {
+                LOGGER.fine("token_metrics bakımı: " + rolled + " özet satırı yazıldı, " + deleted + " satır silindi");
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "token_metrics bakımı başarısız: " + e.getMessage(), e);
+            closeConnection();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "token_metrics bakımında beklenmeyen hata: " + e.getMessage(), e);
+        }
+    }
+
+    // Yeni veritabanları incremental kipte açılır (DatabaseManager); eskileri istenirse tek seferlik VACUUM ile çevrilir
+    private void prepare() throws SQLException {
+        try (Statement stmt = connection().createStatement()) {
+            long mode;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+                mode = rs.next() ? rs.getLong(1) : 0;
+            }
+            if (mode != 2) {
+                if (convertAutoVacuum) {
+                    LOGGER.info("Veritabanı incremental auto_vacuum'a çevriliyor (tek seferlik VACUUM)...");
+                    stmt.execute("PRAGMA auto_vacuum=INCREMENTAL");
+                    stmt.execute("VACUUM");
+                } else {
+                    LOGGER.info("Veritabanı incremental auto_vacuum kipinde değil; silinen alan dosyadan geri verilmeyecek. " +
+                            "Tek seferlik dönüşüm için -Dmaintenance.convertAutoVacuum=true");
+                }
+            }
+        }
+    }
+
+    // Her seviye, altındaki seviyenin tamamlanmış kovalarını toplar. Gecikmeli yazımlar için ham veride
+    // latenessMillis kadar beklenir.
+    private long rollup(long now) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            long written = 0;
+            long target = floor(now - latenessMillis, MINUTE);
+            for (RollupLevel level : LEVELS) {
+                target = floor(target, level.bucketMillis);
+                written += rollupLevel(level, target);
+                // Üst seviye yalnızca bu seviyenin gerçekten toplandığı yere kadar ilerleyebilir
+                target = rolledUntil(level);
+            }
+            return written;
+        } finally {
+            ROLLUP_SECONDS.observeSince(start);
+        }
+    }
+
+    private long rollupLevel(RollupLevel level, long target) throws SQLException {
+        Connection c = connection();
+        long written = 0;
+        while (true) {
+            try (Statement stmt = c.createStatement()) {
+                stmt.execute("BEGIN IMMEDIATE");
+                try {
+                    long from = rolledUntil(level);
+                    if (from == 0) {
+                        from = firstChildTime(level, target);
+                    }
+                    if (from >= target) {
+                        setRolledUntil(level, Math.max(from, rolledUntil(level)));
+                        stmt.execute("COMMIT");
+                        return written;
+                    }
+                    long to = Math.min(target, from + level.chunkMillis);
+                    try (PreparedStatement insert = c.prepareStatement(level.rollupSql)) {
+                        insert.setLong(1, from);
+                        insert.setLong(2, to);
+                        written += insert.executeUpdate();
+                    }
+                    setRolledUntil(level, to);
+                    stmt.execute("COMMIT");
+                } catch (SQLException e) {
+                    stmt.execute("ROLLBACK");
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // İlk çalışmada toplamaya alt seviyenin en eski kovasından başlanır; alt seviye boşsa doğrudan hedefe geçilir
+    private long firstChildTime(RollupLevel level, long target) throws SQLException {
+        String sql = "SELECT MIN(" + level.childTimeColumn() + ") FROM " + level.childTable();
+        try (Statement stmt = connection().createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                long first = rs.getLong(1);
+                if (!rs.wasNull()) {
+                    return floor(first, level.bucketMillis);
+                }
+            }
+        }
+        return target;
+    }
+
+    // Satırlar hem saklama süresini aşmış hem de bir üst seviyeye toplanmış olmalı
+    private long applyRetention(long now) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            long deleted = 0;
+            if (rawRetention > 0) {
+                deleted += deleteBefore("token_metrics", "createdAt",
+                        Math.min(now - rawRetention, rolledUntil(LEVELS[0])), "rowid");
+            }
+            for (int i = 0; i < LEVELS.length; i++) {
+                if (retentions[i] <= 0) {
+                    continue;
+                }
+                long cutoff = now - retentions[i];
+                if (i + 1 < LEVELS.length) {
+                    cutoff = Math.min(cutoff, rolledUntil(LEVELS[i + 1]));
+                }
+                deleted += deleteBefore(LEVELS[i].table, "bucketStart", cutoff, "tokenAddress, bucketStart");
+            }
+            return deleted;
+        } finally {
+            RETENTION_SECONDS.observeSince(start);
+        }
+    }
+
+    private long deleteBefore(String table, String timeColumn, long cutoff, String key) throws SQLException {
+        if (cutoff <= 0) {
+            return 0;
+        }
+        String sql = "DELETE FROM " + table + " WHERE (" + key + ") IN (SELECT " + key + " FROM " + table +
+                " WHERE " + timeColumn + " < ? LIMIT " + DELETE_BATCH + ")";
+        long total = 0;
+        try (PreparedStatement pstmt = connection().prepareStatement(sql)) {
+            int deleted;
+            do {
+                pstmt.setLong(1, cutoff);
+                deleted = pstmt.executeUpdate();
+                total += deleted;
+            } while (deleted == DELETE_BATCH);
+        }
+        return total;
+    }
+
+    // sqlite-jdbc, incremental_vacuum(N) pragmasını tek adım çalıştırır ve her adım tek sayfa boşaltır;
+    // bu yüzden pragma en fazla vacuumPages kez, tek transaction içinde (tek fsync) tekrarlanır.
+    // Her adımın ifadesi COMMIT'ten önce kapatılır, aksi halde transaction kapanamaz.
+    private void vacuum() throws SQLException {
+        if (vacuumPages <= 0) {
+            return;
+        }
+        Connection c = connection();
+        long start = System.nanoTime();
+        try (Statement stmt = c.createStatement()) {
+            long before = freelistCount(c);
+            long pages = Math.min(vacuumPages, before);
+            if (pages == 0) {
+                return;
+            }
+            stmt.execute("BEGIN IMMEDIATE");
+            try {
+                try (Statement step = c.createStatement()) {
+                    for (long i = 0; i < pages; i++) {
+                        step.execute("PRAGMA incremental_vacuum(1)");
+                    }
+                }
+                stmt.execute("COMMIT");
+            } catch (SQLException e) {
+                stmt.execute("ROLLBACK");
+                throw e;
+            }
+            long after = freelistCount(c);
+            VACUUM_PAGES.add(Math.max(0, before - after));
+            if (after >= before) {
+                LOGGER.warning("incremental_vacuum boş sayfa geri vermedi (freelist " + before + " -> " + after + ")");
+            }
+        } finally {
+            VACUUM_SECONDS.observeSince(start);
+        }
+    }
+
+    private static long freelistCount(Connection c) throws SQLException {
+        try (Statement stmt = c.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private long rolledUntil(RollupLevel level) throws SQLException {
+        try (PreparedStatement pstmt = connection().prepareStatement(
+                "SELECT rolledUntil FROM token_metrics_rollup_state WHERE level = ?")) {
+            pstmt.setString(1, level.name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void setRolledUntil(RollupLevel level, long until) throws SQLException {
+        try (PreparedStatement pstmt = connection().prepareStatement(
+                "INSERT INTO token_metrics_rollup_state(level, rolledUntil) VALUES(?, ?) " +
+                        "ON CONFLICT(level) DO UPDATE SET rolledUntil = excluded.rolledUntil")) {
+            pstmt.setString(1, level.name);
+            pstmt.setLong(2, until);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (conn == null || conn.isClosed()) {
+            conn = DriverManager.getConnection(dbUrl);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout=5000");
+            }
+        }
+        return conn;
+    }
+
+    private void closeConnection() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Bakım bağlantısı kapatılırken hata: " + e.getMessage(), e);
+            }
+            conn = null;
+        }
+    }
+
+    private static long floor(long time, long bucket) {
+        return Math.floorDiv(time, bucket) * bucket;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnection();
+    }
+
+    // Bir özet seviyesi ve onu alt seviyeden dolduran sorgu
+    private static class RollupLevel {
+        final String name;
+        final String table;
+        final long bucketMillis;
+        // Tek transaction'da toplanan en uzun zaman aralığı
+        final long chunkMillis;
+        // null ise alt seviye ham token_metrics tablosudur
+        final String child;
+        final String rollupSql;
+
+        RollupLevel(String name, String table, long bucketMillis, long chunkMillis, String child) {
+            this.name = name;
+            this.table = table;
+            this.bucketMillis = bucketMillis;
+            this.chunkMillis = chunkMillis;
+            this.child = child;
+            this.rollupSql = buildRollupSql();
+        }
+
+        String childTable() {
+            return child == null ? "token_metrics" : child;
+        }
+
+        String childTimeColumn() {
+            return child == null ? "createdAt" : "bucketStart";
+        }
+
+        // Kovadaki son değer, alt satırlar zamana göre tersten numaralanıp 1 numaralı satırdan alınır
+        private String buildRollupSql() {
+            String at = child == null ? "createdAt" : "lastAt";
+            String bucket = "(" + childTimeColumn() + " / " + bucketMillis + ") * " + bucketMillis;
+            StringBuilder columns = new StringBuilder("tokenAddress, bucketStart, samples, lastAt");
+            StringBuilder source = new StringBuilder("SELECT tokenAddress, ").append(bucket).append(" AS bucket, ")
+                    .append(child == null ? "1" : "samples").append(" AS n, ").append(at).append(" AS at");
+            StringBuilder select = new StringBuilder("SELECT tokenAddress, bucket, SUM(n), MAX(at)");
+            for (int i = 0; i < METRICS.length; i++) {
+                String m = METRICS[i];
+                columns.append(", min").append(m).append(", max").append(m).append(", sum").append(m).append(", last").append(m);
+                if (child == null) {
+                    String raw = RAW_COLUMNS[i];
+                    source.append(", ").append(raw).append(" AS mn").append(i).append(", ").append(raw).append(" AS mx").append(i)
+                            .append(", ").append(raw).append(" AS s").append(i).append(", ").append(raw).append(" AS l").append(i);
+                } else {
+                    source.append(", min").append(m).append(" AS mn").append(i).append(", max").append(m).append(" AS mx").append(i)
+                            .append(", sum").append(m).append(" AS s").append(i).append(", last").append(m).append(" AS l").append(i);
+                }
+                select.append(", MIN(mn").append(i).append("), MAX(mx").append(i).append("), SUM(s").append(i)
+                        .append("), MAX(CASE WHEN rn = 1 THEN l").append(i).append(" END)");
+            }
+            source.append(", ROW_NUMBER() OVER (PARTITION BY tokenAddress, ").append(bucket).append(" ORDER BY ").append(at)
+                    .append(" DESC) AS rn FROM ").append(childTable())
+                    .append(" WHERE ").append(childTimeColumn()).append(" >= ? AND ").append(childTimeColumn()).append(" < ?");
+            return "WITH src AS (" + source + ") INSERT OR REPLACE INTO " + table + "(" + columns + ") "
+                    + select + " FROM src GROUP BY tokenAddress, bucket";
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+// Sayaç, gauge ve gecikme histogramlarını tutan hafif kayıt defteri.
+// Sıcak yolda yalnızca LongAdder/DoubleAdder güncellenir; Prometheus metin formatına dökümü /metrics isteğinde yapılır.
+class MetricsRegistry {
+
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+
+    // Saniye cinsinden histogram sınırları: 1 ms ile 30 s arası
+    private static final double[] LATENCY_BUCKETS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+    };
+
+    // Metrik adı -> aynı addaki seriler (etiket metni -> seri)
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").series.computeIfAbsent(renderLabels(labels), k -> new Counter());
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, help, "histogram").series.computeIfAbsent(renderLabels(labels), k -> new Histogram(LATENCY_BUCKETS));
+    }
+
+    public void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        family(name, help, "gauge").series.put(renderLabels(labels), new Gauge(supplier));
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, k -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " zaten " + family.type + " olarak kayıtlı");
+        }
+        return family;
+    }
+
+    private static String renderLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Etiketler ad/değer çiftleri halinde verilmeli");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return sb.toString();
+    }
+
+    // Prometheus text exposition format (0.0.4)
+    public void writePrometheus(Writer out) throws IOException {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.write("# HELP " + name + " " + family.help + "\n");
+            out.write("# TYPE " + name + " " + family.type + "\n");
+            for (Map.Entry<String, Metric> series : family.series.entrySet()) {
+                series.getValue().write(out, name, series.getKey());
+            }
+        }
+    }
+
+    private static String withLabels(String name, String labels) {
+        return labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%s", value);
+    }
+
+    private static class Family {
+        final String help;
+        final String type;
+        final Map<String, Metric> series = new ConcurrentHashMap<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private interface Metric {
+        void write(Writer out, String name, String labels) throws IOException;
+    }
+
+    static class Counter implements Metric {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        @Override
+        public void write(Writer out, String name, String labels) throws IOException {
+            out.write(withLabels(name, labels) + " " + value.sum() + "\n");
+        }
+    }
+
+    private static class Gauge implements Metric {
+        private final DoubleSupplier supplier;
+
+        Gauge(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void write(Writer out, String name, String labels) throws IOException {
+            out.write(withLabels(name, labels) + " " + format(supplier.getAsDouble()) + "\n");
+        }
+    }
+
+    static class Histogram implements Metric {
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length];
+            for (int i = 0; i < bounds.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / 1e9);
+        }
+
+        // Başlangıç zamanından (System.nanoTime) bu yana geçen süreyi kaydeder
+        public void observeSince(long startNanos) {
+            observeNanos(System.nanoTime() - startNanos);
+        }
+
+        public void observe(double seconds) {
+            for (int i = 0; i < bounds.length; i++) {
+                if (seconds <= bounds[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(seconds);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        // Kova sınırlarına göre doğrusal ara değerle yaklaşık yüzdelik (saniye)
+        public double quantile(double q) {
+            long total = count.sum();
+            if (total == 0) {
+                return 0;
+            }
+            double rank = q * total;
+            long cumulative = 0;
+            double lower = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                long inBucket = buckets[i].sum();
+                if (cumulative + inBucket >= rank && inBucket > 0) {
+                    return lower + (bounds[i] - lower) * (rank - cumulative) / inBucket;
+                }
+                cumulative += inBucket;
+                lower = bounds[i];
+            }
+            return bounds[bounds.length - 1];
+        }
+
+        @Override
+        public void write(Writer out, String name, String labels) throws IOException {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            List<String> lines = new ArrayList<>(bounds.length + 3);
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets[i].sum();
+                lines.add(name + "_bucket{" + prefix + "le=\"" + format(bounds[i]) + "\"} " + cumulative);
+            }
+            long total = count.sum();
+            lines.add(name + "_bucket{" + prefix + "le=\"+Inf\"} " + total);
+            lines.add(withLabels(name + "_sum", labels) + " " + format(sum.sum()));
+            lines.add(withLabels(name + "_count", labels) + " " + total);
+            for (String line : lines) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+}
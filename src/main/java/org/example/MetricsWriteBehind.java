@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// token_metrics kayıtlarını kuyrukta biriktirip depoya toplu yazar (SQLite için tek transaction).
+// Tarama thread'i diske yazmayı beklemez; kuyruk dolarsa submit bekleyerek geri basınç uygular.
+class MetricsWriteBehind implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsWriteBehind.class.getName());
+
+    private final TokenMetricsStore store;
+    private final BlockingQueue<Main.DatabaseManager.TokenMetric> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public MetricsWriteBehind(TokenMetricsStore store, int capacity, int batchSize, long flushIntervalMs) {
+        this.store = store;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.writer = new Thread(this::run, "metrics-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public void start() {
+        writer.start();
+    }
+
+    public void submit(Main.DatabaseManager.TokenMetric metric) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Metrik yazıcısı kapatıldı");
+        }
+        queue.put(metric);
+    }
+
+    private void run() {
+        List<Main.DatabaseManager.TokenMetric> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitMs = Math.max(1, deadline - System.currentTimeMillis());
+                Main.DatabaseManager.TokenMetric metric = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                if (metric != null) {
+                    batch.add(metric);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Kapanış sırasında kalanları boşaltmaya devam edilir
+                running = false;
+            }
+            if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                flush(batch);
+                deadline = System.currentTimeMillis() + flushIntervalMs;
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<Main.DatabaseManager.TokenMetric> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            store.insertTokenMetricsBatch(batch);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Metrik grubu yazılamadı (" + batch.size() + " kayıt): " + e.getMessage(), e);
+        }
+        batch.clear();
+    }
+
+    // Yeni kayıt kabulünü durdurur ve kuyrukta kalan her şeyi yazana kadar bekler
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
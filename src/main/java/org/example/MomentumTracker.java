@@ -0,0 +1,174 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Token başına son N anlık görüntüyü sabit boyutlu halka tamponlarda tutar ve iki tarama arasındaki
+// değişim hızı/ivme özelliklerini hesaplar. Tüm tamponlar başlangıçta tek seferde ayrılan düz primitive
+// dizilerdir (slot * derinlik + konum); güncelleme O(1) ve bilinen bir token için nesne ayırmaz.
+// En fazla maxTokens token izlenir; yer kalmayınca CLOCK algoritmasıyla son zamanlarda güncellenmemiş
+// bir tokenın slotu yeniden kullanılır. Tokenlar AddressRegistry id'siyle bulunur.
+// Bellek: maxTokens * derinlik * 24 bayt + slot başına 13 bayt + registry'deki adres başına 4 bayt.
+class MomentumTracker {
+
+    private static final double MINUTE_MS = 60_000.0;
+
+    private final int maxTokens;
+    private final int depth;
+
+    // slot * depth + i
+    private final long[] times;
+    private final float[] marketCaps;
+    private final float[] liquidities;
+    private final int[] buys;
+    private final int[] sells;
+
+    // Slot başına
+    private final int[] heads;
+    private final int[] counts;
+    private final boolean[] referenced;
+    private final int[] slotTokens;
+
+    // Registry id'si -> slot + 1 (0: izlenmiyor)
+    private int[] slotOfToken = new int[1024];
+    private int size;
+    private int nextFree;
+    private int clockHand;
+
+    public MomentumTracker(int maxTokens, int depth) {
+        if (depth < 2) {
+            throw new IllegalArgumentException("Halka derinliği en az 2 olmalı");
+        }
+        this.maxTokens = maxTokens;
+        this.depth = depth;
+        int samples = maxTokens * depth;
+        this.times = new long[samples];
+        this.marketCaps = new float[samples];
+        this.liquidities = new float[samples];
+        this.buys = new int[samples];
+        this.sells = new int[samples];
+        this.heads = new int[maxTokens];
+        this.counts = new int[maxTokens];
+        this.referenced = new boolean[maxTokens];
+        this.slotTokens = new int[maxTokens];
+    }
+
+    // Tokenın yeni anlık görüntüsünü halkaya ekler; en eski örneğin üzerine yazılır
+    public synchronized void update(int tokenId, long time, Main.TokenData data) {
+        int slot = slotFor(tokenId);
+        int head = heads[slot];
+        int i = slot * depth + head;
+        times[i] = time;
+        marketCaps[i] = data.marketCap;
+        liquidities[i] = (float) data.liquidityUsd;
+        buys[i] = data.buys24h;
+        sells[i] = data.sells24h;
+        heads[slot] = (head + 1) % depth;
+        if (counts[slot] < depth) {
+            counts[slot]++;
+        }
+        referenced[slot] = true;
+    }
+
+    // Tokenın halkasındaki örneklerden özellikleri hesaplar. En az iki örnek yoksa boş özellik döner.
+    public synchronized Features features(int tokenId) {
+        Features f = new Features();
+        int slot = tokenId < slotOfToken.length ? slotOfToken[tokenId] - 1 : -1;
+        if (slot < 0 || counts[slot] < 2) {
+            return f;
+        }
+        int count = counts[slot];
+        int base = slot * depth;
+        // En yeni örnek head - 1, en eski head - count konumundadır
+        int newest = base + Math.floorMod(heads[slot] - 1, depth);
+        int oldest = base + Math.floorMod(heads[slot] - count, depth);
+        int middle = base + Math.floorMod(heads[slot] - 1 - count / 2, depth);
+
+        f.samples = count;
+        f.marketCapVelocity = ratePerMinute(marketCaps, oldest, newest);
+        f.liquidityDrain = -ratePerMinute(liquidities, oldest, newest);
+        if (count >= 3) {
+            // Yeni yarıdaki hız ile eski yarıdaki hızın farkı
+            f.marketCapAcceleration = ratePerMinute(marketCaps, middle, newest) - ratePerMinute(marketCaps, oldest, middle);
+        }
+
+        // buys/sells 24 saatlik kayan toplamlar; aradaki artış son dakikalardaki işlemlere yaklaşır.
+        // Son işlemlerdeki alım payı 24 saatlik alım payından ne kadar yüksekse alım baskısı o kadar artıyor demektir.
+        int recentBuys = Math.max(0, buys[newest] - buys[oldest]);
+        int recentSells = Math.max(0, sells[newest] - sells[oldest]);
+        int dayTotal = buys[newest] + sells[newest];
+        if (recentBuys + recentSells > 0 && dayTotal > 0) {
+            f.buyRatioTrend = (double) recentBuys / (recentBuys + recentSells) - (double) buys[newest] / dayTotal;
+        }
+        return f;
+    }
+
+    // İd başka bir adrese verilmeden önce çağrılır; slot, CLOCK'un ilk turunda yeniden kullanılır
+    public synchronized void remove(int tokenId) {
+        int slot = tokenId < slotOfToken.length ? slotOfToken[tokenId] - 1 : -1;
+        if (slot < 0) {
+            return;
+        }
+        slotOfToken[tokenId] = 0;
+        slotTokens[slot] = -1;
+        referenced[slot] = false;
+        counts[slot] = 0;
+        size--;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Değerin en eski örneğe göre dakikadaki göreli değişimi
+    private double ratePerMinute(float[] values, int from, int to) {
+        long elapsed = times[to] - times[from];
+        if (elapsed <= 0 || values[from] <= 0) {
+            return 0;
+        }
+        return (values[to] - values[from]) / values[from] / (elapsed / MINUTE_MS);
+    }
+
+    private int slotFor(int tokenId) {
+        if (tokenId >= slotOfToken.length) {
+            slotOfToken = Arrays.copyOf(slotOfToken, AddressRegistry.grownCapacity(slotOfToken.length, tokenId));
+        }
+        if (slotOfToken[tokenId] > 0) {
+            return slotOfToken[tokenId] - 1;
+        }
+        int slot;
+        if (nextFree < maxTokens) {
+            slot = nextFree++;
+            size++;
+        } else {
+            // CLOCK: referans biti temizlenerek dönülür, biti kapalı ilk slot boşaltılır
+            while (referenced[clockHand]) {
+                referenced[clockHand] = false;
+                clockHand = (clockHand + 1) % maxTokens;
+            }
+            slot = clockHand;
+            clockHand = (clockHand + 1) % maxTokens;
+            if (slotTokens[slot] >= 0) {
+                slotOfToken[slotTokens[slot]] = 0;
+            } else {
+                // remove ile boşaltılmış slot
+                size++;
+            }
+        }
+        slotTokens[slot] = tokenId;
+        slotOfToken[tokenId] = slot + 1;
+        heads[slot] = 0;
+        counts[slot] = 0;
+        return slot;
+    }
+
+    // Oranlar dakika başına göreli değişimdir; 0.05 dakikada %5 artış demektir
+    static class Features {
+        int samples;
+        double marketCapVelocity;
+        double marketCapAcceleration;
+        // Pozitifse likidite azalıyor
+        double liquidityDrain;
+        // Son işlemlerdeki alım payı eksi 24 saatlik alım payı
+        double buyRatioTrend;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Tarama hattının bir aşaması: kendi sınırlı giriş kuyruğu ve kendi thread havuzu vardır.
+// Kuyruk dolduğunda put bekler; böylece yavaş bir aşama önceki aşamayı yavaşlatır (geri basınç).
+class PipelineStage<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PipelineStage.class.getName());
+
+    interface Handler<T> {
+        void handle(T item) throws Exception;
+    }
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final Handler<T> handler;
+    private final ExecutorService executor;
+    private final int workers;
+    private volatile boolean accepting = true;
+
+    public PipelineStage(String name, int queueCapacity, int workers, Handler<T> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.handler = handler;
+        this.workers = workers;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "stage-" + name + "-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    // Aşama kapatıldıysa false döner
+    public boolean put(T item) throws InterruptedException {
+        while (accepting) {
+            if (queue.offer(item, 200, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void work() {
+        while (accepting || !queue.isEmpty()) {
+            T item;
+            try {
+                item = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == null) {
+                continue;
+            }
+            try {
+                handler.handle(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, name + " aşamasında hata: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Yeni iş kabulünü durdurur, kuyrukta kalanlar işlenene kadar bekler
+    @Override
+    public void close() {
+        accepting = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                LOGGER.warning(name + " aşaması zamanında boşaltılamadı, " + queue.size() + " iş kaldı");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
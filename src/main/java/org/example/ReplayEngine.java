@@ -0,0 +1,254 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+// ScanLog kaydını ağ ve veritabanı olmadan, CPU'nun izin verdiği hızda tekrar oynatır.
+// Kayıt bir kez çözülür; detay önbelleğindeki değişim kontrolü ve istatistik motoru canlı taramadaki
+// sırayla işletilir. Her gözlem, aynı istatistik görüntüsüyle tüm ağırlık yapılandırmalarına verilir;
+// yapılandırmalar thread'lere paylaştırılır, her biri kendi bildirim durumunu tutar.
+// Bildirimler NullNotifier'a gider, böylece mesaj biçimlendirme maliyeti de ölçüme dahildir.
+class ReplayEngine implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplayEngine.class.getName());
+
+    private final List<ConfigRun> runs = new ArrayList<>();
+    private final List<List<ConfigRun>> slices = new ArrayList<>();
+    private final ExecutorService executor;
+    private final TokenStatistics statistics;
+    private final TokenDetailCache detailCache;
+    private final MomentumTracker momentumTracker;
+    private final boolean bestLiquidityPair;
+    private final int batchSize;
+    private final Main.NullNotifier notifier = new Main.NullNotifier();
+
+    private final AddressRegistry registry;
+    // Registry id'si -> son boosts kaydı
+    private Main.BoostEntry[] latestBoosts;
+    private List<Observation> batch;
+    private long records;
+    private long observations;
+
+    public ReplayEngine(List<Main.GemScorer.Weights> configs, int threads, int batchSize,
+                        int statsWindowSize, long statsWindowPeriod, long cooldownPeriod, double marketCapMultiplier,
+                        long detailCacheTtl, int expectedTokens, boolean bestLiquidityPair,
+                        MomentumTracker momentumTracker) {
+        this.registry = new AddressRegistry(expectedTokens);
+        this.latestBoosts = new Main.BoostEntry[expectedTokens];
+        for (Main.GemScorer.Weights weights : configs) {
+            runs.add(new ConfigRun(weights, cooldownPeriod, marketCapMultiplier, notifier));
+        }
+        int sliceCount = Math.max(1, Math.min(threads, runs.size()));
+        for (int i = 0; i < sliceCount; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (int i = 0; i < runs.size(); i++) {
+            slices.get(i % sliceCount).add(runs.get(i));
+        }
+        this.executor = Executors.newFixedThreadPool(sliceCount, r -> {
+            Thread t = new Thread(r, "replay-score");
+            t.setDaemon(true);
+            return t;
+        });
+        this.statistics = new TokenStatistics(statsWindowSize, statsWindowPeriod);
+        this.detailCache = new TokenDetailCache(detailCacheTtl, expectedTokens);
+        this.bestLiquidityPair = bestLiquidityPair;
+        this.momentumTracker = momentumTracker;
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    // Kaydı baştan sona oynatır; sonuçlar yapılandırmaların verildiği sırayla döner
+    public List<ConfigRun> run(Path logFile) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try (ScanLog.Reader reader = new ScanLog.Reader(logFile)) {
+            ScanLog.Record record;
+            while ((record = reader.next()) != null) {
+                records++;
+                if (record.type == ScanLog.TYPE_BOOSTS) {
+                    for (Main.BoostEntry boost : DexScreenerDecoder.decodeBoosts(new ByteArrayInputStream(record.body))) {
+                        int id = registry.intern(boost.tokenAddress);
+                        if (id >= latestBoosts.length) {
+                            latestBoosts = Arrays.copyOf(latestBoosts, AddressRegistry.grownCapacity(latestBoosts.length, id));
+                        }
+                        latestBoosts[id] = boost;
+                    }
+                } else if (record.type == ScanLog.TYPE_DETAILS) {
+                    replayDetails(record);
+                }
+            }
+        }
+        flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        LOGGER.info(String.format(Locale.ROOT,
+                "Tekrar oynatma bitti: %d kayıt, %d gözlem, %d yapılandırma, %.1f sn (%.0f gözlem/sn, %.0f puan/sn), %d boş bildirim",
+                records, observations, runs.size(), seconds, observations / seconds,
+                observations * (double) runs.size() / seconds, notifier.sent()));
+        return runs;
+    }
+
+    private void replayDetails(ScanLog.Record record) throws IOException, InterruptedException {
+        Map<String, String> requested = new HashMap<>();
+        for (String address : record.key.split(",")) {
+            requested.put(DexScreenerDecoder.normalizeAddress(address), address);
+        }
+        Map<String, Main.TokenData> details = DexScreenerDecoder.decodePairs(
+                new ByteArrayInputStream(record.body), requested, bestLiquidityPair);
+        for (Map.Entry<String, Main.TokenData> entry : details.entrySet()) {
+            String address = entry.getKey();
+            Main.TokenData data = entry.getValue();
+            int id = registry.intern(address);
+            Main.BoostEntry boost = id < latestBoosts.length ? latestBoosts[id] : null;
+            if (boost == null) {
+                boost = new Main.BoostEntry("", address, 0, 0);
+            }
+            // Canlı taramada olduğu gibi verisi değişmemiş token puanlanmaz ve istatistiğe girmez
+            if (!detailCache.update(id, boost, data, record.timestamp)) {
+                continue;
+            }
+            momentumTracker.update(id, record.timestamp, data);
+            batch.add(new Observation(id, data, record.timestamp, statistics.snapshot(record.timestamp),
+                    momentumTracker.features(id)));
+            statistics.add(data.marketCap, data.liquidityUsd, data.volume24h, record.timestamp);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+    }
+
+    // Biriken gözlemleri tüm yapılandırmalara paralel olarak verir ve hepsi bitene kadar bekler
+    private void flush() throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Observation> current = batch;
+        List<Callable<Void>> tasks = new ArrayList<>(slices.size());
+        for (List<ConfigRun> slice : slices) {
+            tasks.add(() -> {
+                for (ConfigRun run : slice) {
+                    for (Observation observation : current) {
+                        run.observe(observation);
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Yapılandırma puanlanırken hata", e.getCause());
+            }
+        }
+        observations += current.size();
+        batch = new ArrayList<>(batchSize);
+    }
+
+    // Her yapılandırma için tek satır: ağırlıklar ve sonuçları
+    public static void writeResults(Path file, List<ConfigRun> runs) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("threshold,priceChange,liquidity,lowMarketCap,volumeOverMarketCap,newToken,highTxns," +
+                    "liquidityAboveAvg,volumeAboveAvg,volumeTopPercentile,marketCapMomentum,marketCapAcceleration,buyPressure," +
+                    "liquidityDrain,scored,gems,notifications,distinctTokens,avgScore");
+            for (ConfigRun run : runs) {
+                Main.GemScorer.Weights w = run.weights;
+                out.println(String.format(Locale.ROOT, "%d,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%d,%d,%d,%d,%.4f",
+                        w.threshold, w.priceChange, w.liquidity, w.lowMarketCap, w.volumeOverMarketCap, w.newToken,
+                        w.highTxns, w.liquidityAboveAvg, w.volumeAboveAvg, w.volumeTopPercentile,
+                        w.marketCapMomentum, w.marketCapAcceleration, w.buyPressure, w.liquidityDrain,
+                        run.scored, run.gems, run.notifications, run.distinctTokens, run.averageScore()));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static class Observation {
+        final int tokenId;
+        final Main.TokenData data;
+        final long observedAt;
+        final TokenStatistics.Snapshot stats;
+        final MomentumTracker.Features momentum;
+
+        Observation(int tokenId, Main.TokenData data, long observedAt, TokenStatistics.Snapshot stats,
+                    MomentumTracker.Features momentum) {
+            this.tokenId = tokenId;
+            this.data = data;
+            this.observedAt = observedAt;
+            this.stats = stats;
+            this.momentum = momentum;
+        }
+    }
+
+    // Tek bir ağırlık yapılandırmasının oynatma durumu. Yalnızca kendi thread'inden güncellenir.
+    static class ConfigRun {
+        final Main.GemScorer.Weights weights;
+        private final long cooldownPeriod;
+        private final double marketCapMultiplier;
+        private final Main.TelegramNotifier notifier;
+        // Registry id'si -> son bildirim zamanı (0: hiç bildirilmedi) ve son bildirilen market cap
+        private long[] lastNotifiedTime = new long[1024];
+        private long[] lastNotifiedMarketCap = new long[1024];
+        long distinctTokens;
+        long scored;
+        long scoreSum;
+        long gems;
+        long notifications;
+
+        ConfigRun(Main.GemScorer.Weights weights, long cooldownPeriod, double marketCapMultiplier,
+                  Main.TelegramNotifier notifier) {
+            this.weights = weights;
+            this.cooldownPeriod = cooldownPeriod;
+            this.marketCapMultiplier = marketCapMultiplier;
+            this.notifier = notifier;
+        }
+
+        void observe(Observation observation) {
+            Main.TokenData data = observation.data;
+            int score = Main.GemScorer.calculateGemScore(data, observation.stats, observation.momentum, weights,
+                    observation.observedAt);
+            scored++;
+            scoreSum += score;
+            if (score < weights.threshold) {
+                return;
+            }
+            gems++;
+
+            // handleGemToken'daki bekleme süresi ve market cap sıçraması kuralı
+            int id = observation.tokenId;
+            if (id >= lastNotifiedTime.length) {
+                int capacity = AddressRegistry.grownCapacity(lastNotifiedTime.length, id);
+                lastNotifiedTime = Arrays.copyOf(lastNotifiedTime, capacity);
+                lastNotifiedMarketCap = Arrays.copyOf(lastNotifiedMarketCap, capacity);
+            }
+            long previousTime = lastNotifiedTime[id];
+            long previousMarketCap = lastNotifiedMarketCap[id];
+            boolean shouldNotify = previousTime == 0
+                    || observation.observedAt - previousTime >= cooldownPeriod
+                    || (previousMarketCap > 0 && data.marketCap > previousMarketCap * marketCapMultiplier);
+            if (shouldNotify) {
+                notifier.sendMessage(0, Main.formatGemMessage(data, score, weights.threshold));
+                if (previousTime == 0) {
+                    distinctTokens++;
+                }
+                lastNotifiedTime[id] = observation.observedAt;
+                lastNotifiedMarketCap[id] = data.marketCap;
+                notifications++;
+            }
+        }
+
+        double averageScore() {
+            return scored == 0 ? 0 : (double) scoreSum / scored;
+        }
+    }
+}
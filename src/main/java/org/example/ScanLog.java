@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Canlı taramadaki ham DexScreener cevaplarının sıkıştırılmış, yalnızca sona eklenen kaydı.
+// Her açılışta dosyanın sonuna yeni bir gzip üyesi eklenir; GZIPInputStream art arda eklenmiş
+// üyeleri tek akış gibi okur. Kayıt biçimi:
+//   byte tür | long zaman (ms) | UTF anahtar | int uzunluk | uzunluk kadar ham gövde
+// Anahtar boosts kayıtlarında boş, detay kayıtlarında istekteki virgülle ayrılmış adreslerdir.
+class ScanLog {
+
+    private static final Logger LOGGER = Logger.getLogger(ScanLog.class.getName());
+
+    static final byte TYPE_BOOSTS = 1;
+    static final byte TYPE_DETAILS = 2;
+
+    private ScanLog() {
+    }
+
+    static class Record {
+        final byte type;
+        final long timestamp;
+        final String key;
+        final byte[] body;
+
+        Record(byte type, long timestamp, String key, byte[] body) {
+            this.type = type;
+            this.timestamp = timestamp;
+            this.key = key;
+            this.body = body;
+        }
+    }
+
+    // Boosts ve detay thread'leri aynı anda yazabildiği için yazımlar senkronizedir
+    static class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+
+        public Writer(Path file) throws IOException {
+            OutputStream fileOut = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut, 65536), 65536));
+        }
+
+        public void recordBoosts(long timestamp, byte[] body) {
+            append(TYPE_BOOSTS, timestamp, "", body);
+        }
+
+        public void recordDetails(long timestamp, String addresses, byte[] body) {
+            append(TYPE_DETAILS, timestamp, addresses, body);
+        }
+
+        private synchronized void append(byte type, long timestamp, String key, byte[] body) {
+            try {
+                out.writeByte(type);
+                out.writeLong(timestamp);
+                out.writeUTF(key);
+                out.writeInt(body.length);
+                out.write(body);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Tarama kaydı yazılamadı: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Tarama kaydı kapatılırken hata: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    static class Reader implements AutoCloseable {
+        private final DataInputStream in;
+
+        public Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 65536), 65536));
+        }
+
+        // Dosya sonunda null döner. Süreç kapanırken yarım kalmış son kayıt uyarıyla atlanır.
+        public Record next() throws IOException {
+            try {
+                int type = in.read();
+                if (type < 0) {
+                    return null;
+                }
+                long timestamp = in.readLong();
+                String key = in.readUTF();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                return new Record((byte) type, timestamp, key, body);
+            } catch (EOFException e) {
+                LOGGER.warning("Tarama kaydının sonu yarım kalmış, son kayıt atlandı");
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Telegram mesajlarını tarama thread'inden bağımsız gönderen kuyruk.
+// Global ve sohbet başına token bucket ile Telegram limitlerine uyar, 429 cevabındaki retry_after
+// süresini bekler, diğer hatalarda üstel geri çekilmeyle tekrar dener. Aynı anda biriken mesajlar
+// sohbet başına tek bir özet mesajda birleştirilir. Her mesajın sonucu future ile bildirilir.
+class TelegramDeliveryQueue implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(TelegramDeliveryQueue.class.getName());
+
+    // Telegram tek mesajda en fazla 4096 karakter kabul ediyor
+    static final int MAX_MESSAGE_LENGTH = 4096;
+    private static final String DIGEST_SEPARATOR = "\n----------\n";
+
+    private static final MetricsRegistry.Counter SENT = MetricsRegistry.shared().counter(
+            "scanner_telegram_messages_total", "Telegram mesaj sonuçları", "result", "sent");
+    private static final MetricsRegistry.Counter FAILED = MetricsRegistry.shared().counter(
+            "scanner_telegram_messages_total", "Telegram mesaj sonuçları", "result", "failed");
+    private static final MetricsRegistry.Counter DROPPED = MetricsRegistry.shared().counter(
+            "scanner_telegram_messages_total", "Telegram mesaj sonuçları", "result", "dropped");
+    private static final MetricsRegistry.Counter RATE_LIMITED_RETRIES = MetricsRegistry.shared().counter(
+            "scanner_telegram_retries_total", "Tekrar denenen Telegram gönderimleri", "reason", "rate_limited");
+    private static final MetricsRegistry.Counter ERROR_RETRIES = MetricsRegistry.shared().counter(
+            "scanner_telegram_retries_total", "Tekrar denenen Telegram gönderimleri", "reason", "error");
+
+    private final Main.TelegramNotifier notifier;
+    private final BlockingQueue<Delivery> queue;
+    private final TokenBucket globalLimit;
+    private final double perChatPerSecond;
+    private final int perChatBurst;
+    private final Map<Long, TokenBucket> chatLimits = new HashMap<>();
+    private final int maxRetries;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public TelegramDeliveryQueue(Main.TelegramNotifier notifier, int capacity, double globalPerSecond, int globalBurst,
+                                 double perChatPerSecond, int perChatBurst, int maxRetries,
+                                 long initialBackoffMs, long maxBackoffMs) {
+        this.notifier = notifier;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.globalLimit = new TokenBucket(globalPerSecond, globalBurst);
+        this.perChatPerSecond = perChatPerSecond;
+        this.perChatBurst = perChatBurst;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.worker = new Thread(this::run, "telegram-delivery");
+        this.worker.setDaemon(true);
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    // Mesajı kuyruğa ekler. Kuyruk doluysa ya da kapatıldıysa future hemen false ile tamamlanır.
+    public CompletableFuture<Boolean> enqueue(long chatId, String text) {
+        Delivery delivery = new Delivery(chatId, text);
+        if (!running || !queue.offer(delivery)) {
+            LOGGER.warning("Telegram kuyruğu dolu ya da kapalı, mesaj gönderilmedi");
+            DROPPED.inc();
+            delivery.result.complete(false);
+        }
+        return delivery.result;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Delivery> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Delivery first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                deliverAll(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Telegram gönderim döngüsünde hata: " + e.getMessage(), e);
+                batch.forEach(d -> d.result.complete(false));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Biriken mesajları sohbete göre gruplar ve her grubu limit dahilinde özetler halinde gönderir
+    private void deliverAll(List<Delivery> batch) throws InterruptedException {
+        Map<Long, List<Delivery>> byChat = new LinkedHashMap<>();
+        for (Delivery delivery : batch) {
+            byChat.computeIfAbsent(delivery.chatId, k -> new ArrayList<>()).add(delivery);
+        }
+        for (Map.Entry<Long, List<Delivery>> entry : byChat.entrySet()) {
+            for (List<Delivery> digest : splitIntoDigests(entry.getValue())) {
+                boolean sent = send(entry.getKey(), digestText(digest));
+                (sent ? SENT : FAILED).add(digest.size());
+                digest.forEach(d -> d.result.complete(sent));
+            }
+        }
+    }
+
+    private static List<List<Delivery>> splitIntoDigests(List<Delivery> deliveries) {
+        List<List<Delivery>> digests = new ArrayList<>();
+        List<Delivery> current = new ArrayList<>();
+        int length = 0;
+        for (Delivery delivery : deliveries) {
+            int added = delivery.text.length() + (current.isEmpty() ? 0 : DIGEST_SEPARATOR.length());
+            if (!current.isEmpty() && length + added > MAX_MESSAGE_LENGTH) {
+                digests.add(current);
+                current = new ArrayList<>();
+                added = delivery.text.length();
+                length = 0;
+            }
+            current.add(delivery);
+            length += added;
+        }
+        if (!current.isEmpty()) {
+            digests.add(current);
+        }
+        return digests;
+    }
+
+    private static String digestText(List<Delivery> digest) {
+        if (digest.size() == 1) {
+            return digest.get(0).text;
+        }
+        StringJoiner joiner = new StringJoiner(DIGEST_SEPARATOR);
+        for (Delivery delivery : digest) {
+            joiner.add(delivery.text);
+        }
+        return joiner.toString();
+    }
+
+    private boolean send(long chatId, String text) throws InterruptedException {
+        TokenBucket chatLimit = chatLimits.computeIfAbsent(chatId, k -> new TokenBucket(perChatPerSecond, perChatBurst));
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; attempt <= maxRetries + 1; attempt++) {
+            globalLimit.acquire();
+            chatLimit.acquire();
+            Main.SendResult result = notifier.sendMessage(chatId, text);
+            if (result.isSuccess()) {
+                return true;
+            }
+            if (!result.isRetryable() || attempt > maxRetries) {
+                break;
+            }
+            long waitMs;
+            if (result.isRateLimited() && result.retryAfterSeconds > 0) {
+                RATE_LIMITED_RETRIES.inc();
+                waitMs = TimeUnit.SECONDS.toMillis(result.retryAfterSeconds);
+            } else {
+                ERROR_RETRIES.inc();
+                waitMs = backoff;
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+            LOGGER.info("Telegram gönderimi " + waitMs + " ms sonra tekrar denenecek. Deneme: " + attempt);
+            Thread.sleep(waitMs);
+        }
+        LOGGER.warning("Telegram mesajı tüm denemelere rağmen gönderilemedi");
+        return false;
+    }
+
+    // Yeni mesaj kabulünü durdurur, kuyruktakileri göndermeye çalışır ve bitmesini bekler
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Delivery left;
+        while ((left = queue.poll()) != null) {
+            DROPPED.inc();
+            left.result.complete(false);
+        }
+    }
+
+    private static class Delivery {
+        final long chatId;
+        final String text;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Delivery(long chatId, String text) {
+            this.chatId = chatId;
+            this.text = text;
+        }
+    }
+
+    // Saniyede ratePerSecond jeton dolan, en fazla capacity jeton biriktiren kova
+    static class TokenBucket {
+        private final double ratePerSecond;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(double ratePerSecond, int capacity) {
+            this.ratePerSecond = ratePerSecond;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        synchronized void acquire() throws InterruptedException {
+            while (true) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1e9 * ratePerSecond);
+                lastRefillNanos = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                long waitMs = (long) Math.ceil((1 - tokens) / ratePerSecond * 1000);
+                Thread.sleep(Math.max(1, waitMs));
+            }
+        }
+    }
+}
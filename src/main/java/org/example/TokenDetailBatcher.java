@@ -0,0 +1,109 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Bekleyen adresleri çoklu adres isteklerinde toplar ve aynı adres için
+// zaten uçuşta olan istekleri birleştirir. Başarısız bir istek "pair yok" sonucuyla karışmasın diye
+// future'lar hatayla tamamlanır; 429/503 cevabındaki Retry-After dolana kadar yeni istek atılmaz.
+class TokenDetailBatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(TokenDetailBatcher.class.getName());
+
+    // DexScreener tokens endpoint'i tek istekte en fazla 30 adres kabul ediyor
+    static final int MAX_ADDRESSES_PER_REQUEST = 30;
+
+    interface BatchFetcher {
+        // Dönen map, istenen adres -> o adresin pair detayı
+        Map<String, Main.TokenData> fetch(List<String> addresses) throws Exception;
+    }
+
+    private final BatchFetcher fetcher;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final int batchSize;
+    private final Map<String, CompletableFuture<Main.TokenData>> inFlight = new ConcurrentHashMap<>();
+    // Sunucunun Retry-After ile istediği en erken tekrar deneme zamanı (epoch ms)
+    private volatile long retryNotBefore;
+
+    public TokenDetailBatcher(BatchFetcher fetcher, Executor executor, Semaphore permits, int batchSize) {
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.permits = permits;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_ADDRESSES_PER_REQUEST));
+    }
+
+    // Her adres için pair detayını tamamlayacak bir future döner. Pair bulunamazsa future null ile,
+    // istek başarısız olduysa hatayla tamamlanır; hata önbelleğe "bulunamadı" olarak yazılmamalıdır.
+    public Map<String, CompletableFuture<Main.TokenData>> request(Collection<String> addresses) {
+        Map<String, CompletableFuture<Main.TokenData>> result = new LinkedHashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String address : addresses) {
+            if (result.containsKey(address)) {
+                continue;
+            }
+            CompletableFuture<Main.TokenData> created = new CompletableFuture<>();
+            CompletableFuture<Main.TokenData> existing = inFlight.putIfAbsent(address, created);
+            if (existing != null) {
+                result.put(address, existing);
+            } else {
+                result.put(address, created);
+                toFetch.add(address);
+            }
+        }
+
+        for (int i = 0; i < toFetch.size(); i += batchSize) {
+            List<String> chunk = List.copyOf(toFetch.subList(i, Math.min(i + batchSize, toFetch.size())));
+            executor.execute(() -> runBatch(chunk));
+        }
+        return result;
+    }
+
+    private void runBatch(List<String> chunk) {
+        Map<String, Main.TokenData> pairs = Collections.emptyMap();
+        Throwable failure = null;
+        try {
+            permits.acquire();
+            try {
+                awaitRetryAfter();
+                pairs = fetcher.fetch(chunk);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (Exception e) {
+            failure = e;
+            if (e instanceof HttpTransport.HttpStatusException status && status.getRetryAfterMillis() > 0) {
+                retryNotBefore = Math.max(retryNotBefore, System.currentTimeMillis() + status.getRetryAfterMillis());
+            }
+            LOGGER.log(Level.WARNING, "Toplu detay isteği başarısız oldu (" + chunk.size() + " adres): " + e.getMessage(), e);
+        } finally {
+            for (String address : chunk) {
+                CompletableFuture<Main.TokenData> future = inFlight.remove(address);
+                if (future == null) {
+                    continue;
+                }
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(pairs.get(address));
+                }
+            }
+        }
+    }
+
+    // Önceki bir cevap Retry-After verdiyse süre dolana kadar bekler
+    private void awaitRetryAfter() throws InterruptedException {
+        long wait = retryNotBefore - System.currentTimeMillis();
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+}
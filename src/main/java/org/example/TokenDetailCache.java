@@ -0,0 +1,111 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Döngüler arası token detay önbelleği. token-boosts/latest her döngüde büyük ölçüde aynı tokenları
+// döndürdüğü için, boost bilgisi değişmemiş ve TTL dolmamış bir token yeniden çekilmez.
+// Yeniden çekilen ama verisi değişmemiş bir token da puanlanmaz ve token_metrics'e yazılmaz.
+// Yalnızca karşılaştırmada kullanılan alanlar AddressRegistry id'siyle indekslenen primitive dizilerde
+// tutulur; TokenData nesnesinin kendisi saklanmaz. Boyut registry'deki yaşayan adres sayısıyla sınırlıdır;
+// registry bir id'yi serbest bırakmadan önce remove ile kaydı düşürülür.
+class TokenDetailCache {
+
+    private final long ttlMillis;
+
+    // id -> son çekilen boost ve detay alanları
+    private boolean[] present;
+    private double[] boostAmount;
+    private double[] boostTotalAmount;
+    private long[] fetchedAt;
+    private int[] marketCap;
+    private int[] txns24h;
+    private double[] liquidityUsd;
+    private double[] volume24h;
+    private double[] priceChange24h;
+    private double[] priceUsd;
+    private int size;
+
+    public TokenDetailCache(long ttlMillis, int initialCapacity) {
+        this.ttlMillis = ttlMillis;
+        allocate(initialCapacity);
+    }
+
+    // Boost kaydı değişmediyse ve son çekimden bu yana TTL dolmadıysa yeniden çekmeye gerek yoktur.
+    // boosts cevabında zaman damgası olmadığından değişim sinyali amount/totalAmount alanlarıdır.
+    public synchronized boolean isFresh(int id, Main.BoostEntry boost, long now) {
+        return id < present.length
+                && present[id]
+                && now - fetchedAt[id] < ttlMillis
+                && boostAmount[id] == boost.amount
+                && boostTotalAmount[id] == boost.totalAmount;
+    }
+
+    // Yeni çekilen detayı kaydeder. Token ilk kez görülüyorsa ya da verisi değiştiyse true döner.
+    public synchronized boolean update(int id, Main.BoostEntry boost, Main.TokenData data, long now) {
+        if (id >= present.length) {
+            allocate(AddressRegistry.grownCapacity(present.length, id));
+        }
+        boolean changed = !present[id] || !sameSnapshot(id, data);
+        if (!present[id]) {
+            present[id] = true;
+            size++;
+        }
+        boostAmount[id] = boost.amount;
+        boostTotalAmount[id] = boost.totalAmount;
+        fetchedAt[id] = now;
+        marketCap[id] = data.marketCap;
+        txns24h[id] = data.txns24h;
+        liquidityUsd[id] = data.liquidityUsd;
+        volume24h[id] = data.volume24h;
+        priceChange24h[id] = data.priceChange24h;
+        priceUsd[id] = data.priceUsd;
+        return changed;
+    }
+
+    // İd başka bir adrese verilmeden önce çağrılır
+    public synchronized void remove(int id) {
+        if (id < present.length && present[id]) {
+            present[id] = false;
+            size--;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private boolean sameSnapshot(int id, Main.TokenData data) {
+        return marketCap[id] == data.marketCap
+                && txns24h[id] == data.txns24h
+                && Double.compare(liquidityUsd[id], data.liquidityUsd) == 0
+                && Double.compare(volume24h[id], data.volume24h) == 0
+                && Double.compare(priceChange24h[id], data.priceChange24h) == 0
+                && Double.compare(priceUsd[id], data.priceUsd) == 0;
+    }
+
+    private void allocate(int capacity) {
+        if (present == null) {
+            present = new boolean[capacity];
+            boostAmount = new double[capacity];
+            boostTotalAmount = new double[capacity];
+            fetchedAt = new long[capacity];
+            marketCap = new int[capacity];
+            txns24h = new int[capacity];
+            liquidityUsd = new double[capacity];
+            volume24h = new double[capacity];
+            priceChange24h = new double[capacity];
+            priceUsd = new double[capacity];
+            return;
+        }
+        present = Arrays.copyOf(present, capacity);
+        boostAmount = Arrays.copyOf(boostAmount, capacity);
+        boostTotalAmount = Arrays.copyOf(boostTotalAmount, capacity);
+        fetchedAt = Arrays.copyOf(fetchedAt, capacity);
+        marketCap = Arrays.copyOf(marketCap, capacity);
+        txns24h = Arrays.copyOf(txns24h, capacity);
+        liquidityUsd = Arrays.copyOf(liquidityUsd, capacity);
+        volume24h = Arrays.copyOf(volume24h, capacity);
+        priceChange24h = Arrays.copyOf(priceChange24h, capacity);
+        priceUsd = Arrays.copyOf(priceUsd, capacity);
+    }
+}
@@ -0,0 +1,257 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+// token_info tablosunun bellekteki kopyası. Bildirim kararı bellekten verilir,
+// değişiklikler arka planda veritabanına yazılır (write-through).
+// Bekleme süresi dolmuş kayıtlar tutulmaz: böyle bir token için karar zaten "bildir" olur. Kayıtlar
+// bekleme süresinin dolacağı ana göre bir min-heap'te sıralanır; evictExpired yalnızca süresi dolanlara bakar.
+// Böylece önbellek, son bekleme süresi içinde bildirilen tokenlarla sınırlı kalır.
+// Kayıtlar AddressRegistry id'siyle indekslenen paralel primitive dizilerde durur; token başına nesne yoktur.
+class TokenInfoCache implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(TokenInfoCache.class.getName());
+
+    private final Main.DatabaseManager dbManager;
+    private final AddressRegistry registry;
+    private final long cooldownPeriod;
+    private final double marketCapMultiplier;
+
+    // id -> kayıt alanları
+    private boolean[] present;
+    private boolean[] pending;
+    private long[] lastNotifiedTime;
+    private long[] initialMarketCap;
+    private long[] lastNotifiedMarketCap;
+    // Küme modunda alınan bildirim hakkından önceki satır (satır hakla oluştuysa null); gönderim
+    // başarısız olursa bu değerlere dönülür
+    private Main.DatabaseManager.TokenInfo[] claimedFrom;
+    private int size;
+
+    // (bekleme süresinin dolacağı an, id) min-heap'i. Her put bir girdi ekler; kaydı sonradan güncellenen ya da
+    // silinen id'nin eski girdisi heap'ten çıktığında kayıtla karşılaştırılıp atlanır.
+    private long[] expiryAt = new long[16];
+    private int[] expiryId = new int[16];
+    private int expiryCount;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "token-info-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TokenInfoCache(Main.DatabaseManager dbManager, AddressRegistry registry, long cooldownPeriod,
+                          double marketCapMultiplier, int initialCapacity) {
+        this.dbManager = dbManager;
+        this.registry = registry;
+        this.cooldownPeriod = cooldownPeriod;
+        this.marketCapMultiplier = marketCapMultiplier;
+        this.present = new boolean[initialCapacity];
+        this.pending = new boolean[initialCapacity];
+        this.lastNotifiedTime = new long[initialCapacity];
+        this.initialMarketCap = new long[initialCapacity];
+        this.lastNotifiedMarketCap = new long[initialCapacity];
+        this.claimedFrom = new Main.DatabaseManager.TokenInfo[initialCapacity];
+    }
+
+    // Başlangıçta bekleme süresi henüz dolmamış kayıtları yükler
+    public void load(long now) {
+        dbManager.loadTokenInfo(now - cooldownPeriod, info -> put(registry.intern(info.getTokenAddress()),
+                info.getLastNotifiedTime(), info.getInitialMarketCap(), info.getLastNotifiedMarketCap()));
+        LOGGER.info("token_info önbelleğe yüklendi: " + size() + " kayıt");
+    }
+
+    // İlk kez gem olan, bekleme süresi dolmuş ya da market cap'i son bildirimden bu yana
+    // çarpan kadar artmış token bildirilir
+    public synchronized boolean shouldNotify(int id, long now, long marketCap) {
+        if (id >= present.length || !present[id]) {
+            return true;
+        }
+        boolean cooldownExpired = (now - lastNotifiedTime[id]) >= cooldownPeriod;
+        boolean bigMarketCapJump = lastNotifiedMarketCap[id] > 0
+                && marketCap > lastNotifiedMarketCap[id] * marketCapMultiplier;
+        return cooldownExpired || bigMarketCapJump;
+    }
+
+    // Gönderimi süren bir bildirim yoksa tokenı işaretler ve true döner
+    public synchronized boolean markPending(int id) {
+        ensureCapacity(id);
+        if (pending[id]) {
+            return false;
+        }
+        pending[id] = true;
+        return true;
+    }
+
+    public synchronized void clearPending(int id) {
+        pending[id] = false;
+    }
+
+    // Küme modunda bildirim hakkını veritabanında atomik olarak alır. Önceki değerler bellekten değil
+    // veritabanı satırından alınır: süresi dolup bellekten düşmüş bir kaydın da geçmişi vardır.
+    // Hak başka bir örnekteyse bellekteki kayıt veritabanından tazelenir ve false döner.
+    public boolean claim(int id, long now, long marketCap) {
+        String tokenAddress = registry.address(id);
+        Main.DatabaseManager.TokenClaim claim =
+                dbManager.claimTokenInfo(tokenAddress, now, marketCap, cooldownPeriod, marketCapMultiplier);
+        if (claim != null) {
+            synchronized (this) {
+                ensureCapacity(id);
+                claimedFrom[id] = claim.previous;
+                put(id, now, claim.previous != null ? claim.previous.getInitialMarketCap() : marketCap, marketCap);
+            }
+            return true;
+        }
+        Main.DatabaseManager.TokenInfo info = dbManager.getTokenInfo(tokenAddress);
+        if (info != null) {
+            put(id, info.getLastNotifiedTime(), info.getInitialMarketCap(), info.getLastNotifiedMarketCap());
+        }
+        return false;
+    }
+
+    // Gönderilemeyen bildirimin hakkını bırakır; bir sonraki taramada token yeniden bildirilebilir
+    public void release(int id, long claimedAt) {
+        Main.DatabaseManager.TokenInfo previous;
+        synchronized (this) {
+            previous = claimedFrom[id];
+            claimedFrom[id] = null;
+            if (previous == null) {
+                if (present[id]) {
+                    present[id] = false;
+                    size--;
+                }
+            } else {
+                put(id, previous.getLastNotifiedTime(), previous.getInitialMarketCap(), previous.getLastNotifiedMarketCap());
+            }
+        }
+        String tokenAddress = registry.address(id);
+        writer.execute(() -> dbManager.releaseTokenInfo(tokenAddress, claimedAt, previous));
+    }
+
+    // Küme modunda gönderilen bildirimi kaydeder. Satır koşulsuz upsert edilmez: yalnızca bu örneğin
+    // claimedAt ile aldığı hak hâlâ satırdaysa güncellenir, başka bir örneğin sonraki hakkı ezilmez.
+    public void confirmClaim(int id, long claimedAt, long notifiedTime, long marketCap) {
+        synchronized (this) {
+            claimedFrom[id] = null;
+            put(id, notifiedTime, present(id) ? initialMarketCap[id] : marketCap, marketCap);
+        }
+        String tokenAddress = registry.address(id);
+        writer.execute(() -> dbManager.confirmTokenInfo(tokenAddress, claimedAt, notifiedTime, marketCap));
+    }
+
+    // Gönderilen bildirimi kaydeder; veritabanına yazım arka planda yapılır
+    public void recordNotification(int id, long notifiedTime, long marketCap) {
+        synchronized (this) {
+            put(id, notifiedTime, present(id) ? initialMarketCap[id] : marketCap, marketCap);
+        }
+        String tokenAddress = registry.address(id);
+        writer.execute(() -> dbManager.upsertTokenInfo(tokenAddress, notifiedTime, marketCap));
+    }
+
+    // Bekleme süresi dolmuş kayıtları çıkarır; maliyeti süresi dolan girdi sayısıyla orantılıdır
+    public synchronized void evictExpired(long now) {
+        while (expiryCount > 0 && expiryAt[0] <= now) {
+            int id = expiryId[0];
+            popExpiry();
+            if (present[id] && now - lastNotifiedTime[id] >= cooldownPeriod) {
+                present[id] = false;
+                size--;
+            }
+        }
+    }
+
+    // Kayıt bekleme süresindeyse ya da gönderimi sürüyorsa true; registry böyle bir id'yi serbest bırakmamalı
+    public synchronized boolean holds(int id) {
+        return id < present.length && (present[id] || pending[id]);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized void put(int id, long notifiedTime, long initial, long lastMarketCap) {
+        ensureCapacity(id);
+        if (!present[id]) {
+            present[id] = true;
+            size++;
+        }
+        lastNotifiedTime[id] = notifiedTime;
+        initialMarketCap[id] = initial;
+        lastNotifiedMarketCap[id] = lastMarketCap;
+        pushExpiry(notifiedTime + cooldownPeriod, id);
+    }
+
+    private void pushExpiry(long at, int id) {
+        if (expiryCount == expiryAt.length) {
+            expiryAt = Arrays.copyOf(expiryAt, expiryCount * 2);
+            expiryId = Arrays.copyOf(expiryId, expiryCount * 2);
+        }
+        int i = expiryCount++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (expiryAt[parent] <= at) {
+                break;
+            }
+            expiryAt[i] = expiryAt[parent];
+            expiryId[i] = expiryId[parent];
+            i = parent;
+        }
+        expiryAt[i] = at;
+        expiryId[i] = id;
+    }
+
+    private void popExpiry() {
+        long at = expiryAt[--expiryCount];
+        int id = expiryId[expiryCount];
+        int i = 0;
+        int half = expiryCount >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < expiryCount && expiryAt[child + 1] < expiryAt[child]) {
+                child++;
+            }
+            if (at <= expiryAt[child]) {
+                break;
+            }
+            expiryAt[i] = expiryAt[child];
+            expiryId[i] = expiryId[child];
+            i = child;
+        }
+        expiryAt[i] = at;
+        expiryId[i] = id;
+    }
+
+    private boolean present(int id) {
+        return id < present.length && present[id];
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < present.length) {
+            return;
+        }
+        int capacity = AddressRegistry.grownCapacity(present.length, id);
+        present = Arrays.copyOf(present, capacity);
+        pending = Arrays.copyOf(pending, capacity);
+        lastNotifiedTime = Arrays.copyOf(lastNotifiedTime, capacity);
+        initialMarketCap = Arrays.copyOf(initialMarketCap, capacity);
+        lastNotifiedMarketCap = Arrays.copyOf(lastNotifiedMarketCap, capacity);
+        claimedFrom = Arrays.copyOf(claimedFrom, capacity);
+    }
+
+    // Bekleyen veritabanı yazımlarının bitmesini bekler
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warning("token_info yazımları zamanında bitmedi");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
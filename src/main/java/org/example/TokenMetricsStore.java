@@ -0,0 +1,16 @@
+package org.example;
+
+import java.util.List;
+
+// token_metrics anlık görüntülerinin yazıldığı ve başlangıçta istatistiklerin okunduğu depo.
+// Varsayılan olarak SQLite (DatabaseManager), istenirse ColumnarMetricsStore kullanılır.
+interface TokenMetricsStore extends AutoCloseable {
+
+    void insertTokenMetricsBatch(List<Main.DatabaseManager.TokenMetric> metrics);
+
+    // Tüm zamanlar toplamlarını ve son kayıtları istatistik motoruna yükler
+    void loadStatistics(TokenStatistics statistics);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,256 @@
+package org.example;
+
+import java.util.Arrays;
+
+// token_metrics üzerinden hesaplanan ortalamaların bellekteki karşılığı.
+// Her yeni snapshot ile artımlı güncellenir; GemScorer her döngüde O(1) maliyetle okur.
+// Tüm zamanlar ortalaması, kayan pencere (son N kayıt ve/veya son T milisaniye) ortalaması ve
+// P² algoritmasıyla tutulan hacim yüzdeliğini (GemScorer'ın yüksek hacim bonusu) sunar.
+class TokenStatistics {
+
+    private final long windowMillis;
+
+    // Tüm zamanlar
+    private long totalCount;
+    private double totalMarketCap;
+    private double totalLiquidity;
+    private double totalVolume;
+
+    // Kayan pencere: sabit boyutlu halka tampon
+    private final long[] windowTime;
+    private final double[] windowMarketCap;
+    private final double[] windowLiquidity;
+    private final double[] windowVolume;
+    private int windowHead;
+    private int windowSize;
+    private double windowSumMarketCap;
+    private double windowSumLiquidity;
+    private double windowSumVolume;
+
+    private final P2Quantile volumeP90 = new P2Quantile(0.90);
+
+    // windowMillis <= 0 ise pencere yalnızca kayıt sayısıyla sınırlanır
+    public TokenStatistics(int windowCapacity, long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.windowTime = new long[windowCapacity];
+        this.windowMarketCap = new double[windowCapacity];
+        this.windowLiquidity = new double[windowCapacity];
+        this.windowVolume = new double[windowCapacity];
+    }
+
+    public synchronized void add(long marketCap, double liquidityUsd, double volume24h, long createdAt) {
+        totalCount++;
+        totalMarketCap += marketCap;
+        totalLiquidity += liquidityUsd;
+        totalVolume += volume24h;
+
+        addToWindow(marketCap, liquidityUsd, volume24h, createdAt);
+        volumeP90.add(volume24h);
+    }
+
+    // Başlangıçta veritabanındaki tüm zamanlar toplamlarıyla doldurmak için
+    public synchronized void seedTotals(long count, double sumMarketCap, double sumLiquidity, double sumVolume) {
+        totalCount += count;
+        totalMarketCap += sumMarketCap;
+        totalLiquidity += sumLiquidity;
+        totalVolume += sumVolume;
+    }
+
+    // Başlangıçta son kayıtlarla pencereyi ve yüzdelik tahminini doldurmak için; tüm zamanlar toplamına dokunmaz
+    public synchronized void seedRecent(long marketCap, double liquidityUsd, double volume24h, long createdAt) {
+        addToWindow(marketCap, liquidityUsd, volume24h, createdAt);
+        volumeP90.add(volume24h);
+    }
+
+    public int windowCapacity() {
+        return windowTime.length;
+    }
+
+    public synchronized Snapshot snapshot(long now) {
+        evictOlderThan(now);
+        double allTimeMarketCap = totalCount == 0 ? 0 : totalMarketCap / totalCount;
+        double allTimeLiquidity = totalCount == 0 ? 0 : totalLiquidity / totalCount;
+        double allTimeVolume = totalCount == 0 ? 0 : totalVolume / totalCount;
+        double windowMarketCapAvg = windowSize == 0 ? 0 : windowSumMarketCap / windowSize;
+        double windowLiquidityAvg = windowSize == 0 ? 0 : windowSumLiquidity / windowSize;
+        double windowVolumeAvg = windowSize == 0 ? 0 : windowSumVolume / windowSize;
+        return new Snapshot(totalCount, allTimeMarketCap, allTimeLiquidity, allTimeVolume,
+                windowSize, windowMarketCapAvg, windowLiquidityAvg, windowVolumeAvg, volumeP90.value());
+    }
+
+    private void addToWindow(long marketCap, double liquidityUsd, double volume24h, long createdAt) {
+        if (windowTime.length == 0) {
+            return;
+        }
+        if (windowSize == windowTime.length) {
+            removeOldest();
+        }
+        int slot = (windowHead + windowSize) % windowTime.length;
+        windowTime[slot] = createdAt;
+        windowMarketCap[slot] = marketCap;
+        windowLiquidity[slot] = liquidityUsd;
+        windowVolume[slot] = volume24h;
+        windowSize++;
+        windowSumMarketCap += marketCap;
+        windowSumLiquidity += liquidityUsd;
+        windowSumVolume += volume24h;
+        evictOlderThan(createdAt);
+    }
+
+    private void evictOlderThan(long now) {
+        if (windowMillis <= 0) {
+            return;
+        }
+        long cutoff = now - windowMillis;
+        while (windowSize > 0 && windowTime[windowHead] < cutoff) {
+            removeOldest();
+        }
+    }
+
+    private void removeOldest() {
+        windowSumMarketCap -= windowMarketCap[windowHead];
+        windowSumLiquidity -= windowLiquidity[windowHead];
+        windowSumVolume -= windowVolume[windowHead];
+        windowHead = (windowHead + 1) % windowTime.length;
+        windowSize--;
+        if (windowSize == 0) {
+            // Kayan toplamlarda biriken yuvarlama hatasını sıfırla
+            windowSumMarketCap = 0;
+            windowSumLiquidity = 0;
+            windowSumVolume = 0;
+        }
+    }
+
+    // Belirli bir andaki istatistiklerin değişmez kopyası
+    static class Snapshot {
+        final long allTimeCount;
+        final double allTimeAvgMarketCap;
+        final double allTimeAvgLiquidity;
+        final double allTimeAvgVolume;
+        final int windowCount;
+        final double windowAvgMarketCap;
+        final double windowAvgLiquidity;
+        final double windowAvgVolume;
+        final double volumeP90;
+
+        public Snapshot(long allTimeCount, double allTimeAvgMarketCap, double allTimeAvgLiquidity, double allTimeAvgVolume,
+                        int windowCount, double windowAvgMarketCap, double windowAvgLiquidity, double windowAvgVolume,
+                        double volumeP90) {
+            this.allTimeCount = allTimeCount;
+            this.allTimeAvgMarketCap = allTimeAvgMarketCap;
+            this.allTimeAvgLiquidity = allTimeAvgLiquidity;
+            this.allTimeAvgVolume = allTimeAvgVolume;
+            this.windowCount = windowCount;
+            this.windowAvgMarketCap = windowAvgMarketCap;
+            this.windowAvgLiquidity = windowAvgLiquidity;
+            this.windowAvgVolume = windowAvgVolume;
+            this.volumeP90 = volumeP90;
+        }
+
+        // Pencere boşsa tüm zamanlar ortalamasına düşer
+        public double avgMarketCap() {
+            return windowCount > 0 ? windowAvgMarketCap : allTimeAvgMarketCap;
+        }
+
+        public double avgLiquidity() {
+            return windowCount > 0 ? windowAvgLiquidity : allTimeAvgLiquidity;
+        }
+
+        public double avgVolume() {
+            return windowCount > 0 ? windowAvgVolume : allTimeAvgVolume;
+        }
+    }
+
+    // Jain & Chlamtac P² algoritması: tek bir yüzdeliği beş işaretçiyle, veriyi saklamadan tahmin eder
+    static class P2Quantile {
+        private final double p;
+        private final double[] heights = new double[5];
+        private final int[] positions = new int[5];
+        private final double[] desired = new double[5];
+        private final double[] increments = new double[5];
+        private int count;
+
+        P2Quantile(double p) {
+            this.p = p;
+        }
+
+        void add(double x) {
+            if (count < 5) {
+                heights[count++] = x;
+                if (count == 5) {
+                    Arrays.sort(heights);
+                    for (int i = 0; i < 5; i++) {
+                        positions[i] = i;
+                    }
+                    desired[0] = 0;
+                    desired[1] = 2 * p;
+                    desired[2] = 4 * p;
+                    desired[3] = 2 + 2 * p;
+                    desired[4] = 4;
+                    increments[0] = 0;
+                    increments[1] = p / 2;
+                    increments[2] = p;
+                    increments[3] = (1 + p) / 2;
+                    increments[4] = 1;
+                }
+                return;
+            }
+            count++;
+
+            int k;
+            if (x < heights[0]) {
+                heights[0] = x;
+                k = 0;
+            } else if (x < heights[1]) {
+                k = 0;
+            } else if (x < heights[2]) {
+                k = 1;
+            } else if (x < heights[3]) {
+                k = 2;
+            } else if (x <= heights[4]) {
+                k = 3;
+            } else {
+                heights[4] = x;
+                k = 3;
+            }
+            for (int i = k + 1; i < 5; i++) {
+                positions[i]++;
+            }
+            for (int i = 0; i < 5; i++) {
+                desired[i] += increments[i];
+            }
+
+            for (int i = 1; i <= 3; i++) {
+                double d = desired[i] - positions[i];
+                if ((d >= 1 && positions[i + 1] - positions[i] > 1) || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                    int step = d > 0 ? 1 : -1;
+                    double candidate = parabolic(i, step);
+                    if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                        heights[i] = candidate;
+                    } else {
+                        heights[i] = heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+                    }
+                    positions[i] += step;
+                }
+            }
+        }
+
+        private double parabolic(int i, int d) {
+            return heights[i] + (double) d / (positions[i + 1] - positions[i - 1])
+                    * ((positions[i] - positions[i - 1] + d) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i])
+                    + (positions[i + 1] - positions[i] - d) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]));
+        }
+
+        double value() {
+            if (count == 0) {
+                return 0;
+            }
+            if (count < 5) {
+                double[] sorted = Arrays.copyOf(heights, count);
+                Arrays.sort(sorted);
+                return sorted[(int) Math.min(count - 1, Math.round(p * (count - 1)))];
+            }
+            return heights[2];
+        }
+    }
+}